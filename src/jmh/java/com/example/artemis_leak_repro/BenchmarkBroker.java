@@ -0,0 +1,62 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * In-process broker for benchmarks, configured by the application's {@link ArtemisEmbeddedConfig} customizer
+ * on its own ports and a temporary data directory.
+ */
+final class BenchmarkBroker {
+
+    static final int CORE_PORT = 61626;
+    static final int MQTT_PORT = 1893;
+
+    private BenchmarkBroker() {
+    }
+
+    static AmqProperties amqProperties(Path dataDirectory) {
+        AmqProperties amqProperties = new AmqProperties();
+        amqProperties.setBrokerName("artemis-bench");
+        amqProperties.setCorePort(CORE_PORT);
+        amqProperties.setMqttPort(MQTT_PORT);
+        amqProperties.setDataDirectory(dataDirectory.toString());
+        return amqProperties;
+    }
+
+    static EmbeddedActiveMQ start(AmqProperties amqProperties) throws Exception {
+        Configuration config = new ConfigurationImpl();
+        new ArtemisEmbeddedConfig().reproCustomizer(amqProperties).customize(config);
+        EmbeddedActiveMQ embeddedActiveMQ = new EmbeddedActiveMQ().setConfiguration(config);
+        embeddedActiveMQ.start();
+        return embeddedActiveMQ;
+    }
+
+    /**
+     * Diagnostics that never log; they scan broker structures and would otherwise land in the measured send path.
+     */
+    static Diagnostics quietDiagnostics(EmbeddedActiveMQ embeddedActiveMQ, AmqProperties amqProperties, ReproProperties reproProperties) {
+        return new Diagnostics(new ArtemisMonitor(embeddedActiveMQ, reproProperties.getMonitorPrefixes()), amqProperties,
+            new DiskUsageTracker(amqProperties, reproProperties), reproProperties) {
+            @Override
+            void logDiagnostics() {
+            }
+        };
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+}
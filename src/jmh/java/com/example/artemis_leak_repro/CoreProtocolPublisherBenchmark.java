@@ -0,0 +1,99 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CoreProtocolPublisher#publishToMultipleAddresses()} against an in-process broker
+ * configured by the same {@link ArtemisEmbeddedConfig} customizer the application uses.
+ * <p>
+ * The {@code messages} counter is reported as messages/sec. Run with the gc profiler
+ * ({@code ./gradlew jmh}) and divide {@code gc.alloc.rate.norm} by {@code addressCount}
+ * for bytes allocated per message.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoreProtocolPublisherBenchmark {
+
+    @Param({"10", "1000"})
+    public int addressCount;
+
+    @Param({"128", "4096"})
+    public int payloadSize;
+
+    @Param({"true", "false"})
+    public boolean durable;
+
+    @Param({"false", "true"})
+    public boolean asyncSend;
+
+    private Path dataDirectory;
+    private EmbeddedActiveMQ embeddedActiveMQ;
+    private CoreProtocolPublisher publisher;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long messages;
+
+        // JMH does not reset aux counters, without this each iteration would report the running total
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dataDirectory = Files.createTempDirectory("artemis-bench");
+
+        AmqProperties amqProperties = BenchmarkBroker.amqProperties(dataDirectory);
+
+        ReproProperties reproProperties = new ReproProperties();
+        reproProperties.setAddressCount(addressCount);
+        reproProperties.setPayloadSize(payloadSize);
+        reproProperties.setDurable(durable);
+        reproProperties.setAsyncSend(asyncSend);
+
+        embeddedActiveMQ = BenchmarkBroker.start(amqProperties);
+
+        Diagnostics diagnostics = BenchmarkBroker.quietDiagnostics(embeddedActiveMQ, amqProperties, reproProperties);
+        publisher = new CoreProtocolPublisher(embeddedActiveMQ, diagnostics, new Workload(reproProperties), amqProperties, reproProperties);
+        publisher.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        publisher.cleanup();
+        embeddedActiveMQ.stop();
+        BenchmarkBroker.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public void publishToMultipleAddresses(Counters counters) {
+        publisher.publishToMultipleAddresses();
+        counters.messages += addressCount;
+    }
+
+}
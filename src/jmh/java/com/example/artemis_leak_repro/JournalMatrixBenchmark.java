@@ -0,0 +1,162 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.server.JournalType;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable send throughput and latency across the journal settings exposed in {@link AmqProperties}.
+ * <p>
+ * Each invocation is one blocking durable send to a durable queue that a consumer drains and acknowledges,
+ * so the journal sees both appends and deletes. {@code SampleTime} gives the distribution of the whole blocking send,
+ * network round trip included; fsync latency is not timed on its own and is only approximated by comparing cells
+ * with {@code journalSync} on and off. {@code compaction} is {@code off} or {@code <min-files>:<percentage>}.
+ * After each trial the on-disk footprint of the data directory is logged and appended to
+ * {@code build/results/jmh/journal-footprint.csv}, one row per mode and configuration.
+ * <p>
+ * The full matrix takes about an hour, so a plain {@code ./gradlew jmh} skips it; select it with
+ * {@code -PjmhIncludes=JournalMatrixBenchmark}.
+ * <p>
+ * ASYNCIO is left out as it needs libaio; with NIO or MAPPED the matrix runs anywhere.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalMatrixBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalMatrixBenchmark.class);
+    private static final SimpleString QUEUE = SimpleString.of("bench.journal");
+    private static final Path FOOTPRINT = Path.of("build/results/jmh/journal-footprint.csv");
+
+    @Param({"NIO", "MAPPED"})
+    public JournalType journalType;
+
+    @Param({"1048576", "10485760"})
+    public int journalFileSize;
+
+    @Param({"2", "10"})
+    public int journalMinFiles;
+
+    @Param({"off", "10:30"})
+    public String compaction;
+
+    @Param({"false", "true"})
+    public boolean journalSync;
+
+    @Param({"1024"})
+    public int payloadSize;
+
+    private Path dataDirectory;
+    private EmbeddedActiveMQ embeddedActiveMQ;
+    private ServerLocator locator;
+    private ClientSessionFactory factory;
+    private ClientSession producerSession;
+    private ClientSession consumerSession;
+    private ClientProducer producer;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dataDirectory = Files.createTempDirectory("artemis-journal-bench");
+
+        AmqProperties amqProperties = BenchmarkBroker.amqProperties(dataDirectory);
+        amqProperties.setJournalType(journalType);
+        amqProperties.setJournalFileSize(journalFileSize);
+        amqProperties.setJournalMinFiles(journalMinFiles);
+        if (!"off".equals(compaction)) {
+            String[] parts = compaction.split(":");
+            amqProperties.setJournalCompactMinFiles(Integer.parseInt(parts[0]));
+            amqProperties.setJournalCompactPercentage(Integer.parseInt(parts[1]));
+        }
+        amqProperties.setJournalSync(journalSync);
+
+        embeddedActiveMQ = BenchmarkBroker.start(amqProperties);
+
+        locator = ActiveMQClient.createServerLocator(
+            String.format("tcp://%s:%d", amqProperties.getHost(), amqProperties.getCorePort()));
+        locator.setBlockOnDurableSend(true);
+        factory = locator.createSessionFactory();
+
+        producerSession = factory.createSession();
+        producerSession.createQueue(QueueConfiguration.of(QUEUE).setRoutingType(RoutingType.ANYCAST).setDurable(true));
+        producer = producerSession.createProducer(QUEUE);
+
+        consumerSession = factory.createSession(false, true, true);
+        ClientConsumer consumer = consumerSession.createConsumer(QUEUE);
+        consumer.setMessageHandler(ClientMessage::acknowledge);
+        consumerSession.start();
+
+        payload = new byte[payloadSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(BenchmarkParams params) throws Exception {
+        consumerSession.close();
+        producerSession.close();
+        factory.close();
+        locator.close();
+
+        DiskUsageTracker.DiskUsage usage = DiskUsageTracker.walk(dataDirectory);
+        long bytes = usage.bytes();
+        long files = usage.files();
+        // Throughput and SampleTime each run a trial per configuration, so the mode tells the two rows apart
+        String mode = params.getMode().shortLabel();
+        log.info("Journal footprint {} {} fileSize={} minFiles={} compaction={} sync={}: {} bytes in {} files",
+            mode, journalType, journalFileSize, journalMinFiles, compaction, journalSync, bytes, files);
+        writeFootprint(mode, bytes, files);
+
+        embeddedActiveMQ.stop();
+        BenchmarkBroker.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public void durableSend() throws Exception {
+        ClientMessage message = producerSession.createMessage(true);
+        message.getBodyBuffer().writeBytes(payload);
+        producer.send(message);
+    }
+
+    private void writeFootprint(String mode, long bytes, long files) throws Exception {
+        Files.createDirectories(FOOTPRINT.toAbsolutePath().getParent());
+        if (!Files.exists(FOOTPRINT)) {
+            Files.writeString(FOOTPRINT, "mode,journalType,journalFileSize,journalMinFiles,compaction,journalSync,bytes,files\n");
+        }
+        Files.writeString(FOOTPRINT, String.format(Locale.ROOT, "%s,%s,%d,%d,%s,%b,%d,%d%n",
+            mode, journalType, journalFileSize, journalMinFiles, compaction, journalSync, bytes, files),
+            StandardOpenOption.APPEND);
+    }
+}
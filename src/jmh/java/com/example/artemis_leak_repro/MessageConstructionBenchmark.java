@@ -0,0 +1,118 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.core.client.impl.ClientMessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the address and stamped message of one Core publish the way {@link CoreProtocolPublisher} did before
+ * {@link MessageTemplate} ({@code FORMAT}) and the way it does now ({@code TEMPLATE}), without a broker.
+ * <p>
+ * Each operation is one message, so {@code gc.alloc.rate.norm} from the gc profiler is bytes allocated per message.
+ * {@code ONE_OFF} sends every message to a fresh address, {@code RECURRING} draws from a working set of 1000.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageConstructionBenchmark {
+
+    public enum Construction {
+        FORMAT, TEMPLATE
+    }
+
+    public enum Addresses {
+        ONE_OFF, RECURRING
+    }
+
+    private static final String ORIGIN = "artemis-node1";
+
+    @Param({"FORMAT", "TEMPLATE"})
+    public Construction construction;
+
+    @Param({"ONE_OFF", "RECURRING"})
+    public Addresses addresses;
+
+    @Param({"128"})
+    public int payloadSize;
+
+    private Workload workload;
+    private MessageTemplate template;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ReproProperties reproProperties = new ReproProperties();
+        reproProperties.setPayloadSize(payloadSize);
+        if (addresses == Addresses.RECURRING) {
+            ReproProperties.WorkloadProfile profile = new ReproProperties.WorkloadProfile();
+            profile.setOneOffRatio(0);
+            profile.setPayloadSizeMin(payloadSize);
+            reproProperties.getWorkloads().put("recurring", profile);
+            reproProperties.setWorkload("recurring");
+        }
+        workload = new Workload(reproProperties);
+        template = new MessageTemplate(ORIGIN);
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        // index 0 is the batch's fixed address, keep it out of the steady state
+        if (++index == Integer.MAX_VALUE) {
+            index = 1;
+        }
+        int i = index;
+        ClientMessage message = new ClientMessageImpl(Message.DEFAULT_TYPE, false, 0, System.currentTimeMillis(), (byte) 4, 1500);
+        long sentAt = LatencyHistograms.nowMicros();
+        SimpleString address = switch (construction) {
+            case FORMAT -> {
+                String name = addresses == Addresses.RECURRING
+                    ? workload.nextAddress(i)
+                    : "publish/" + UUID.randomUUID() + "/" + UUID.randomUUID();
+                String payload = String.format("{\"eventType\": \"test.event\", \"index\": %d, \"timestamp\": %d, \"%s\": \"%s\", \"%s\": %d}",
+                    i, System.currentTimeMillis(),
+                    LatencyHistograms.ORIGIN, ORIGIN,
+                    LatencyHistograms.SENT_AT, sentAt);
+                int size = workload.nextPayloadSize();
+                if (payload.length() < size) {
+                    payload = payload + " ".repeat(size - payload.length());
+                }
+                message.getBodyBuffer().writeBytes(payload.getBytes(StandardCharsets.UTF_8));
+                message.putLongProperty(LatencyHistograms.SENT_AT, sentAt);
+                message.putStringProperty(LatencyHistograms.ORIGIN, ORIGIN);
+                yield SimpleString.of(name);
+            }
+            case TEMPLATE -> {
+                template.write(message.getBodyBuffer(), i, sentAt, workload.nextPayloadSize());
+                message.putLongProperty(MessageTemplate.SENT_AT_PROPERTY, sentAt);
+                message.putStringProperty(MessageTemplate.ORIGIN_PROPERTY, template.origin());
+                yield workload.nextAddressName(i);
+            }
+        };
+        message.setRoutingType(RoutingType.MULTICAST);
+        blackhole.consume(address);
+        blackhole.consume(message);
+    }
+
+}
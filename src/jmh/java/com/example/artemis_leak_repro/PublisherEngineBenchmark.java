@@ -0,0 +1,106 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the raw Core {@code ClientSession} publisher with {@link JmsPublisher}, which sends through
+ * {@code JmsTemplate} over a pooled-jms connection factory, on the same workload and broker.
+ * <p>
+ * {@code messages} is reported as messages/sec and {@code gc.alloc.rate.norm} divided by {@code addressCount}
+ * gives bytes allocated per message, so the difference between the two engines is the cost of the JMS and pooling
+ * layers. {@code jmsAnonymousProducers} only affects the JMS engine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PublisherEngineBenchmark {
+
+    @Param({"CORE", "JMS"})
+    public ReproProperties.PublisherType publisher;
+
+    @Param({"1000"})
+    public int addressCount;
+
+    @Param({"128"})
+    public int payloadSize;
+
+    @Param({"true", "false"})
+    public boolean durable;
+
+    @Param({"true"})
+    public boolean jmsAnonymousProducers;
+
+    private Path dataDirectory;
+    private EmbeddedActiveMQ embeddedActiveMQ;
+    private Publisher engine;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long messages;
+
+        // JMH does not reset aux counters, without this each iteration would report the running total
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dataDirectory = Files.createTempDirectory("artemis-bench");
+
+        AmqProperties amqProperties = BenchmarkBroker.amqProperties(dataDirectory);
+
+        ReproProperties reproProperties = new ReproProperties();
+        reproProperties.setAddressCount(addressCount);
+        reproProperties.setPayloadSize(payloadSize);
+        reproProperties.setDurable(durable);
+        reproProperties.getJms().setUseAnonymousProducers(jmsAnonymousProducers);
+
+        embeddedActiveMQ = BenchmarkBroker.start(amqProperties);
+
+        Diagnostics diagnostics = BenchmarkBroker.quietDiagnostics(embeddedActiveMQ, amqProperties, reproProperties);
+        Workload workload = new Workload(reproProperties);
+        engine = switch (publisher) {
+            case CORE -> new CoreProtocolPublisher(embeddedActiveMQ, diagnostics, workload, amqProperties, reproProperties);
+            case JMS -> new JmsPublisher(embeddedActiveMQ, diagnostics, workload, amqProperties, reproProperties);
+            case MQTT -> throw new IllegalArgumentException("MQTT is not part of this comparison");
+        };
+        engine.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        engine.cleanup();
+        embeddedActiveMQ.stop();
+        BenchmarkBroker.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public void publishBatch(Counters counters) {
+        counters.messages += engine.publishBatch();
+    }
+
+}
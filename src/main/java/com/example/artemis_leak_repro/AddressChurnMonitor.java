@@ -0,0 +1,232 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.api.core.management.CoreNotificationType;
+import org.apache.activemq.artemis.api.core.management.ManagementHelper;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.core.server.management.Notification;
+import org.apache.activemq.artemis.core.server.management.NotificationListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how long auto-created addresses live and how many create/delete cycles per second the broker sustains.
+ * <p>
+ * Listens for {@code ADDRESS_ADDED} and {@code ADDRESS_REMOVED} management notifications for addresses under
+ * {@code repro.churn.address-prefix} and {@code repro.churn.stress-address-prefix}, records each address's lifetime
+ * into a histogram and periodically logs the lifetime distribution, the create and delete rates and the number of
+ * addresses still alive. In stress mode it publishes to unique addresses under the stress prefix at a stepped rate
+ * until deletions fall behind creations.
+ * <p>
+ * Creation times are kept for at most {@code repro.churn.max-tracked-addresses} addresses and 24h, so the leaked
+ * addresses this repro produces do not turn the monitor into a leak of its own.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AddressChurnMonitor implements NotificationListener {
+
+    private static final long MAX_LIFETIME_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private final EmbeddedActiveMQ embeddedActiveMQ;
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+
+    private final Map<SimpleString, Long> createdAt = new ConcurrentHashMap<>();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder stressCreated = new LongAdder();
+    private final LongAdder stressRemoved = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final Recorder lifetimes = new Recorder(MAX_LIFETIME_MILLIS, 3);
+    private Histogram interval;
+    private SimpleString prefix;
+    private SimpleString stressPrefix;
+    private ScheduledExecutorService scheduler;
+    private long lastCreated;
+    private long lastRemoved;
+    private long lastReportNanos;
+    private volatile boolean stressRunning;
+
+    @PostConstruct
+    public void start() {
+        prefix = SimpleString.of(reproProperties.getChurn().getAddressPrefix());
+        stressPrefix = SimpleString.of(reproProperties.getChurn().getStressAddressPrefix());
+        embeddedActiveMQ.getActiveMQServer().getManagementService().addNotificationListener(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "address-churn");
+            t.setDaemon(true);
+            return t;
+        });
+        lastReportNanos = System.nanoTime();
+        long period = reproProperties.getChurn().getReportInterval().toMillis();
+        scheduler.scheduleAtFixedRate(this::report, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stressRunning = false;
+        embeddedActiveMQ.getActiveMQServer().getManagementService().removeNotificationListener(this);
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void onNotification(Notification notification) {
+        if (notification.getType() != CoreNotificationType.ADDRESS_ADDED
+            && notification.getType() != CoreNotificationType.ADDRESS_REMOVED) {
+            return;
+        }
+        SimpleString address = notification.getProperties().getSimpleStringProperty(ManagementHelper.HDR_ADDRESS);
+        if (address == null) {
+            return;
+        }
+        boolean stress = address.startsWith(stressPrefix);
+        if (!stress && !address.startsWith(prefix)) {
+            return;
+        }
+        if (notification.getType() == CoreNotificationType.ADDRESS_ADDED) {
+            if (createdAt.size() < reproProperties.getChurn().getMaxTrackedAddresses()) {
+                createdAt.put(address, System.nanoTime());
+            } else {
+                untracked.increment();
+            }
+            created.increment();
+            if (stress) {
+                stressCreated.increment();
+            }
+        } else {
+            Long start = createdAt.remove(address);
+            removed.increment();
+            if (stress) {
+                stressRemoved.increment();
+            }
+            if (start != null) {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                lifetimes.recordValue(Math.min(millis, MAX_LIFETIME_MILLIS));
+            }
+        }
+    }
+
+    /**
+     * Addresses created but not yet removed.
+     */
+    public long getLiveAddresses() {
+        return created.sum() - removed.sum();
+    }
+
+    private long getLiveStressAddresses() {
+        return stressCreated.sum() - stressRemoved.sum();
+    }
+
+    private synchronized void report() {
+        try {
+            long now = System.nanoTime();
+            double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+            long totalCreated = created.sum();
+            long totalRemoved = removed.sum();
+            double createRate = (totalCreated - lastCreated) / seconds;
+            double removeRate = (totalRemoved - lastRemoved) / seconds;
+            lastReportNanos = now;
+            lastCreated = totalCreated;
+            lastRemoved = totalRemoved;
+            interval = lifetimes.getIntervalHistogram(interval);
+            // past the histogram's range, and a leaked address may never see its ADDRESS_REMOVED
+            long expiredBefore = now - TimeUnit.MILLISECONDS.toNanos(MAX_LIFETIME_MILLIS);
+            createdAt.values().removeIf(start -> {
+                if (start - expiredBefore < 0) {
+                    untracked.increment();
+                    return true;
+                }
+                return false;
+            });
+            if (totalCreated == 0) {
+                return;
+            }
+            log.info("[{}] Address churn: {} created/s, {} deleted/s, {} alive; lifetime ms p50={} p99={} max={} ({} deleted, {} untracked)",
+                amqProperties.getBrokerName(),
+                String.format("%.0f", createRate), String.format("%.0f", removeRate), totalCreated - totalRemoved,
+                interval.getValueAtPercentile(50), interval.getValueAtPercentile(99), interval.getMaxValue(),
+                interval.getTotalCount(), untracked.sum());
+        } catch (Exception e) {
+            log.error("Error reporting address churn", e);
+        }
+    }
+
+    /**
+     * Publishes one non-durable message to a fresh address per tick, raising the rate by {@code rate-step}
+     * every {@code step-duration} until the number of live addresses grows by more than {@code backlog-tolerance}
+     * of the addresses created in a step, i.e. the auto-delete reaper no longer keeps up.
+     */
+    public void runStress() {
+        ReproProperties.Churn settings = reproProperties.getChurn();
+        stressRunning = true;
+        Thread.ofVirtual().name("address-churn-stress").start(() -> {
+            String brokerUrl = String.format("tcp://%s:%d", amqProperties.getHost(), amqProperties.getCorePort());
+            try (ServerLocator locator = ActiveMQClient.createServerLocator(brokerUrl);
+                 ClientSessionFactory factory = locator.createSessionFactory();
+                 ClientSession session = factory.createSession();
+                 ClientProducer producer = session.createProducer()) {
+                double rate = settings.getInitialRate();
+                double sustained = 0;
+                while (stressRunning && rate <= settings.getMaxRate()) {
+                    long liveBefore = getLiveStressAddresses();
+                    long sent = publishStep(session, producer, rate, settings.getStepDuration().toNanos());
+                    // give the reaper one scan period to remove the last addresses of the step
+                    Thread.sleep(embeddedActiveMQ.getActiveMQServer().getConfiguration().getAddressQueueScanPeriod());
+                    long backlog = getLiveStressAddresses() - liveBefore;
+                    log.info("[{}] Churn stress at {} addr/s: {} created, backlog grew by {}",
+                        amqProperties.getBrokerName(), String.format("%.0f", rate), sent, backlog);
+                    if (backlog > sent * settings.getBacklogTolerance()) {
+                        log.warn("[{}] Auto-delete fell behind at {} addr/s; highest sustained rate {} addr/s",
+                            amqProperties.getBrokerName(), String.format("%.0f", rate), String.format("%.0f", sustained));
+                        return;
+                    }
+                    sustained = rate;
+                    rate += settings.getRateStep();
+                }
+                log.info("[{}] Churn stress finished, auto-delete kept up to {} addr/s",
+                    amqProperties.getBrokerName(), String.format("%.0f", sustained));
+            } catch (Exception e) {
+                log.error("Churn stress failed", e);
+            } finally {
+                stressRunning = false;
+            }
+        });
+    }
+
+    private long publishStep(ClientSession session, ClientProducer producer, double rate, long durationNanos) throws Exception {
+        long intervalNanos = (long) (1_000_000_000.0 / rate);
+        long start = System.nanoTime();
+        long sent = 0;
+        while (stressRunning && System.nanoTime() - start < durationNanos) {
+            long wait = start + sent * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            ClientMessage message = session.createMessage(false);
+            message.setRoutingType(RoutingType.MULTICAST);
+            producer.send(stressPrefix.concat(UUID.randomUUID().toString()), message);
+            sent++;
+        }
+        return sent;
+    }
+}
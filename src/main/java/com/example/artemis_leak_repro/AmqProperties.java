@@ -1,9 +1,14 @@
 package com.example.artemis_leak_repro;
 
 import lombok.Data;
+import org.apache.activemq.artemis.core.server.JournalType;
+import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancingType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for ActiveMQ Artemis broker settings.
  * Maps to {@code amq.*} properties in application.yaml
@@ -33,6 +38,13 @@ public class AmqProperties {
      */
     private int corePort = 61616;
 
+    /**
+     * Maximum number of unacknowledged QoS 1 publishes per MQTT connection.
+     * Advertised by the MQTT acceptor and used as the send maximum of MqttPublisher.
+     * Default: 65535 (MQTT 5 maximum)
+     */
+    private int mqttReceiveMaximum = 65535;
+
     /**
      * Host address for broker acceptors and client connections.
      * Default: "localhost"
@@ -46,6 +58,60 @@ public class AmqProperties {
      */
     private String dataDirectory = "target/artemis-data";
 
+    /**
+     * Journal implementation for the message and bindings journals.
+     * Default: NIO
+     */
+    private JournalType journalType = JournalType.NIO;
+
+    /**
+     * Size of each journal file in bytes.
+     * Default: 1048576 (1 MB)
+     */
+    private int journalFileSize = 1024 * 1024;
+
+    /**
+     * Number of journal files pre-created at startup.
+     * Default: 2
+     */
+    private int journalMinFiles = 2;
+
+    /**
+     * Minimum number of journal files before compaction is considered; 0 disables compaction.
+     * Default: 0
+     */
+    private int journalCompactMinFiles = 0;
+
+    /**
+     * Live data percentage below which the journal is compacted.
+     * Default: 0
+     */
+    private int journalCompactPercentage = 0;
+
+    /**
+     * Sync the journal to disk before acknowledging durable and transactional writes.
+     * Default: false (repro only, production syncs)
+     */
+    private boolean journalSync = false;
+
+    /**
+     * Memory all addresses together may use before every address starts paging.
+     * Default: 10485760 (10 MB)
+     */
+    private long globalMaxSize = 10 * 1024 * 1024;
+
+    /**
+     * Memory a single address may use before it starts paging.
+     * Default: 10485760 (10 MB)
+     */
+    private long addressMaxSizeBytes = 10 * 1024 * 1024;
+
+    /**
+     * Size of each page file.
+     * Default: 1048576 (1 MB)
+     */
+    private int pageSizeBytes = 1024 * 1024;
+
     /**
      * Name for the cluster connection configuration.
      * Used when cluster-enabled is true.
@@ -59,5 +125,37 @@ public class AmqProperties {
      * Default: true
      */
     private boolean clusterEnabled = true;
+
+    /**
+     * Static connectors to other cluster nodes as {@code host:port} Core endpoints.
+     * When empty, connectors are derived from the broker name for the node1/node2 setup.
+     * Default: empty
+     */
+    private List<String> clusterPeers = new ArrayList<>();
+
+    /**
+     * Only bridge to the static connectors instead of to every node learned from the cluster topology.
+     * Default: false
+     */
+    private boolean clusterAllowDirectConnectionsOnly = false;
+
+    /**
+     * Maximum number of hops a message may be forwarded between cluster nodes.
+     * Default: 1
+     */
+    private int clusterMaxHops = 1;
+
+    /**
+     * How the cluster connection load-balances messages to other nodes.
+     * Default: ON_DEMAND
+     */
+    private MessageLoadBalancingType messageLoadBalancing = MessageLoadBalancingType.ON_DEMAND;
+
+    /**
+     * Milliseconds before messages on a queue without local consumers are redistributed to other nodes;
+     * -1 disables redistribution.
+     * Default: -1
+     */
+    private long redistributionDelay = -1;
 }
 
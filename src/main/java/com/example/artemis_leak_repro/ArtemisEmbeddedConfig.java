@@ -7,11 +7,10 @@ import org.apache.activemq.artemis.core.config.Configuration;
 import org.apache.activemq.artemis.core.config.WildcardConfiguration;
 import org.apache.activemq.artemis.core.remoting.impl.netty.NettyAcceptorFactory;
 import org.apache.activemq.artemis.core.remoting.impl.netty.NettyConnectorFactory;
-import org.apache.activemq.artemis.core.server.JournalType;
-import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancingType;
 import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.springframework.boot.artemis.autoconfigure.ArtemisConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
 import org.springframework.context.annotation.Bean;
 
 import java.util.ArrayList;
@@ -38,15 +37,15 @@ public class ArtemisEmbeddedConfig {
             config.setPagingDirectory(dataDir + "/paging");
             config.setLargeMessagesDirectory(dataDir + "/largemessages");
 
-            config.setJournalType(JournalType.NIO);
-            config.setJournalFileSize(1024 * 1024);
-            config.setGlobalMaxSize(10 * 1024 * 1024);
-            config.setJournalMinFiles(2);
-            config.setJournalCompactMinFiles(0);
-            config.setJournalCompactPercentage(0);
-            // not part of our prod configuration, only for repro
-            config.setJournalSyncNonTransactional(false);
-            config.setJournalSyncTransactional(false);
+            config.setJournalType(amqProperties.getJournalType());
+            config.setJournalFileSize(amqProperties.getJournalFileSize());
+            config.setGlobalMaxSize(amqProperties.getGlobalMaxSize());
+            config.setJournalMinFiles(amqProperties.getJournalMinFiles());
+            config.setJournalCompactMinFiles(amqProperties.getJournalCompactMinFiles());
+            config.setJournalCompactPercentage(amqProperties.getJournalCompactPercentage());
+            // sync off is not part of our prod configuration, only for repro
+            config.setJournalSyncNonTransactional(amqProperties.isJournalSync());
+            config.setJournalSyncTransactional(amqProperties.isJournalSync());
 
             config.setJMXManagementEnabled(true);
             config.setAddressQueueScanPeriod(500);
@@ -65,6 +64,7 @@ public class ArtemisEmbeddedConfig {
             mqttParams.put("protocols", "MQTT");
             mqttParams.put("host", amqProperties.getHost());
             mqttParams.put("port", String.valueOf(amqProperties.getMqttPort()));
+            mqttParams.put("receiveMaximum", String.valueOf(amqProperties.getMqttReceiveMaximum()));
             acceptors.add(new TransportConfiguration(NettyAcceptorFactory.class.getName(), mqttParams, "mqtt"));
 
             config.setAcceptorConfigurations(acceptors);
@@ -90,9 +90,9 @@ public class ArtemisEmbeddedConfig {
                 .setReconnectAttempts(-1)
                 .setInitialConnectAttempts(-1)
                 .setDuplicateDetection(true)
-                .setAllowDirectConnectionsOnly(false)
-                .setMessageLoadBalancingType(MessageLoadBalancingType.ON_DEMAND)
-                .setMaxHops(1)
+                .setAllowDirectConnectionsOnly(amqProperties.isClusterAllowDirectConnectionsOnly())
+                .setMessageLoadBalancingType(amqProperties.getMessageLoadBalancing())
+                .setMaxHops(amqProperties.getClusterMaxHops())
                 .setProducerWindowSize(-1);
 
             List<String> staticConnectors = new ArrayList<>();
@@ -100,15 +100,21 @@ public class ArtemisEmbeddedConfig {
 
             String brokerName = amqProperties.getBrokerName();
 
-            if (brokerName.equals("artemis-broker")) {
-                setConnector(config, staticConnectors, "61617", "node1-connector");
-                setConnector(config, staticConnectors, "61618", "node2-connector");
+            if (!amqProperties.getClusterPeers().isEmpty()) {
+                List<String> peers = amqProperties.getClusterPeers();
+                for (int i = 0; i < peers.size(); i++) {
+                    String[] hostPort = peers.get(i).split(":");
+                    setConnector(config, staticConnectors, hostPort[0], hostPort[1], "peer" + i + "-connector");
+                }
+            } else if (brokerName.equals("artemis-broker")) {
+                setConnector(config, staticConnectors, "localhost", "61617", "node1-connector");
+                setConnector(config, staticConnectors, "localhost", "61618", "node2-connector");
             } else if (brokerName.equals("artemis-node1")) {
-//                setConnector(config, staticConnectors, "61616", "default-connector");
-                setConnector(config, staticConnectors, "61618", "node2-connector");
+//                setConnector(config, staticConnectors, "localhost", "61616", "default-connector");
+                setConnector(config, staticConnectors, "localhost", "61618", "node2-connector");
             } else if (brokerName.equals("artemis-node2")) {
-//                setConnector(config, staticConnectors, "61616", "default-connector");
-                setConnector(config, staticConnectors, "61617", "node1-connector");
+//                setConnector(config, staticConnectors, "localhost", "61616", "default-connector");
+                setConnector(config, staticConnectors, "localhost", "61617", "node1-connector");
             }
 
             clusterConfig.setStaticConnectors(staticConnectors);
@@ -138,19 +144,33 @@ public class ArtemisEmbeddedConfig {
             addressSettings.setAutoDeleteQueuesDelay(0L);
             addressSettings.setAutoDeleteQueuesMessageCount(0L);
 
-            addressSettings.setMaxSizeBytes(10 * 1024 * 1024L);
-            addressSettings.setPageSizeBytes(1024 * 1024);
+            addressSettings.setMaxSizeBytes(amqProperties.getAddressMaxSizeBytes());
+            addressSettings.setPageSizeBytes(amqProperties.getPageSizeBytes());
             addressSettings.setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE);
 
             addressSettings.setIDCacheSize(2000);
+            addressSettings.setRedistributionDelay(amqProperties.getRedistributionDelay());
 
             config.addAddressSetting("#", addressSettings);
         };
     }
 
-    private void setConnector(Configuration config, List<String> staticConnectors, String port, String connectorName) {
+    @Bean
+    @ConditionalOnBooleanProperty(value = "repro.startup.enabled", matchIfMissing = true)
+    StartupProfiler startupProfiler(AmqProperties amqProperties, ReproProperties reproProperties) {
+        return new StartupProfiler(amqProperties, reproProperties);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty(value = "repro.startup.enabled", matchIfMissing = true)
+    ArtemisConfigurationCustomizer startupProfilerCustomizer(StartupProfiler startupProfiler) {
+        // plugins from the configuration are registered as the server starts, before the journals load
+        return config -> config.registerBrokerPlugin(startupProfiler);
+    }
+
+    private void setConnector(Configuration config, List<String> staticConnectors, String host, String port, String connectorName) {
         Map<String, Object> nodeConnector = new HashMap<>();
-        nodeConnector.put("host", "localhost");
+        nodeConnector.put("host", host);
         nodeConnector.put("port", port);
         config.addConnectorConfiguration(connectorName,
             new TransportConfiguration(NettyConnectorFactory.class.getName(), nodeConnector));
@@ -6,6 +6,7 @@ import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationListener;
@@ -14,6 +15,7 @@ import org.springframework.context.annotation.Bean;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -25,45 +27,159 @@ import java.util.stream.Stream;
 @EnableConfigurationProperties({AmqProperties.class, ReproProperties.class})
 public class ArtemisLeakReproApplication implements ApplicationListener<ApplicationReadyEvent> {
 
+	/**
+	 * Starts {@code node1} and {@code node2} in this JVM, both with {@code args}. When {@code args} already select a
+	 * profile with {@code --spring.profiles.active}, only that node is started.
+	 */
 	public static void main(String[] args) {
 //        cleanupArtemisDataDirectory("target/artemis-data-node1/");
 //        cleanupArtemisDataDirectory("target/artemis-data-node2/");
-		SpringApplication.run(ArtemisLeakReproApplication.class, "--spring.profiles.active=node1");
-        SpringApplication.run(ArtemisLeakReproApplication.class, "--spring.profiles.active=node2");
+        if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--spring.profiles.active="))) {
+            SpringApplication.run(ArtemisLeakReproApplication.class, args);
+            return;
+        }
+		SpringApplication.run(ArtemisLeakReproApplication.class, withProfile(args, "node1"));
+        SpringApplication.run(ArtemisLeakReproApplication.class, withProfile(args, "node2"));
 	}
 
+    private static String[] withProfile(String[] args, String profile) {
+        String[] withProfile = Arrays.copyOf(args, args.length + 1);
+        withProfile[args.length] = "--spring.profiles.active=" + profile;
+        return withProfile;
+    }
+
     @Bean
+    @ConditionalOnProperty(name = "repro.publisher", havingValue = "core", matchIfMissing = true)
     CoreProtocolPublisher coreProtocolPublisher(
-        EmbeddedActiveMQ embeddedActiveMQ, Diagnostics diags, AmqProperties amqProps, ReproProperties reproProps
+        EmbeddedActiveMQ embeddedActiveMQ, Diagnostics diags, Workload workload, AmqProperties amqProps, ReproProperties reproProps
+    ) {
+        return new CoreProtocolPublisher(embeddedActiveMQ, diags, workload, amqProps, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "repro.publisher", havingValue = "mqtt")
+    MqttPublisher mqttPublisher(
+        EmbeddedActiveMQ embeddedActiveMQ, Diagnostics diags, Workload workload, AmqProperties amqProps, ReproProperties reproProps
     ) {
-        return new CoreProtocolPublisher(embeddedActiveMQ, diags, amqProps, reproProps);
+        return new MqttPublisher(embeddedActiveMQ, diags, workload, amqProps, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "repro.publisher", havingValue = "jms")
+    JmsPublisher jmsPublisher(
+        EmbeddedActiveMQ embeddedActiveMQ, Diagnostics diags, Workload workload, AmqProperties amqProps, ReproProperties reproProps
+    ) {
+        return new JmsPublisher(embeddedActiveMQ, diags, workload, amqProps, reproProps);
+    }
+
+    @Bean
+    ConcurrentPublisher concurrentPublisher(
+        EmbeddedActiveMQ embeddedActiveMQ, Diagnostics diags, Workload workload, AmqProperties amqProps, ReproProperties reproProps
+    ) {
+        return new ConcurrentPublisher(() -> switch (reproProps.getPublisher()) {
+            case CORE -> new CoreProtocolPublisher(embeddedActiveMQ, diags, workload, amqProps, reproProps);
+            case MQTT -> new MqttPublisher(embeddedActiveMQ, diags, workload, amqProps, reproProps);
+            case JMS -> new JmsPublisher(embeddedActiveMQ, diags, workload, amqProps, reproProps);
+        }, diags, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty("repro.open-loop.enabled")
+    OpenLoopPublisher openLoopPublisher(
+        Publisher publisher, Diagnostics diags, AmqProperties amqProps, ReproProperties reproProps
+    ) {
+        return new OpenLoopPublisher(publisher, diags, amqProps, reproProps);
+    }
+
+    @Bean
+    Workload workload(ReproProperties reproProps) {
+        return new Workload(reproProps);
     }
 
     @Bean
     @ConditionalOnBooleanProperty("repro.core-consumer-enabled")
-    public CoreProtocolConsumer coreProtocolConsumer(AmqProperties amqProps, ReproProperties reproProps) {
-        return new CoreProtocolConsumer(amqProps, reproProps);
+    public CoreProtocolConsumer coreProtocolConsumer(AmqProperties amqProps, ReproProperties reproProps, LatencyHistograms latency) {
+        return new CoreProtocolConsumer(amqProps, reproProps, latency);
     }
 
     @Bean
     @ConditionalOnBooleanProperty(value = "repro.core-consumer-enabled", havingValue = false)
-    public MqttConsumer mqttConsumer(EmbeddedActiveMQ embeddedActiveMQ, AmqProperties amqProps, ReproProperties reproProps) {
-        return new MqttConsumer(embeddedActiveMQ, amqProps, reproProps);
+    public MqttConsumer mqttConsumer(
+        EmbeddedActiveMQ embeddedActiveMQ, AmqProperties amqProps, ReproProperties reproProps, LatencyHistograms latency
+    ) {
+        return new MqttConsumer(embeddedActiveMQ, amqProps, reproProps, latency);
     }
 
     @Bean
-    Diagnostics diagnosticThread(ArtemisMonitor monitor, AmqProperties amqProperties) {
-        return new Diagnostics(monitor, amqProperties);
+    LatencyHistograms latencyHistograms(AmqProperties amqProps, ReproProperties reproProps) {
+        return new LatencyHistograms(amqProps, reproProps);
     }
 
     @Bean
-    ArtemisMonitor artemisMonitor(EmbeddedActiveMQ embeddedAmq) {
-        return new ArtemisMonitor(embeddedAmq);
+    Diagnostics diagnosticThread(
+        ArtemisMonitor monitor, AmqProperties amqProperties, DiskUsageTracker diskUsageTracker, ReproProperties reproProps
+    ) {
+        return new Diagnostics(monitor, amqProperties, diskUsageTracker, reproProps);
+    }
+
+    @Bean
+    DiskUsageTracker diskUsageTracker(AmqProperties amqProperties, ReproProperties reproProps) {
+        return new DiskUsageTracker(amqProperties, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty(value = "repro.leak-detection.enabled", matchIfMissing = true)
+    LeakDetector leakDetector(ArtemisMonitor monitor, AmqProperties amqProperties, ReproProperties reproProps) {
+        return new LeakDetector(monitor, amqProperties, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty(value = "repro.churn.enabled", matchIfMissing = true)
+    AddressChurnMonitor addressChurnMonitor(EmbeddedActiveMQ embeddedActiveMQ, AmqProperties amqProps, ReproProperties reproProps) {
+        return new AddressChurnMonitor(embeddedActiveMQ, amqProps, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty("repro.paging.stress")
+    PagingStress pagingStress(EmbeddedActiveMQ embeddedActiveMQ, ArtemisMonitor monitor, AmqProperties amqProps, ReproProperties reproProps) {
+        return new PagingStress(embeddedActiveMQ, monitor, amqProps, reproProps);
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty(value = "repro.flight-recorder-events", matchIfMissing = true)
+    FlightRecorderEvents flightRecorderEvents(ArtemisMonitor monitor, AmqProperties amqProps) {
+        return new FlightRecorderEvents(monitor, amqProps);
+    }
+
+    @Bean
+    ArtemisMonitor artemisMonitor(EmbeddedActiveMQ embeddedAmq, ReproProperties reproProps) {
+        return new ArtemisMonitor(embeddedAmq, reproProps.getMonitorPrefixes());
     }
 
     @Override
+    @SneakyThrows
     public void onApplicationEvent(ApplicationReadyEvent event) {
-        CoreProtocolPublisher publisher = event.getApplicationContext().getBean(CoreProtocolPublisher.class);
+        ReproProperties reproProps = event.getApplicationContext().getBean(ReproProperties.class);
+        if (reproProps.getChurn().isStress()) {
+            event.getApplicationContext().getBean(AddressChurnMonitor.class).runStress();
+        }
+        if (reproProps.getPaging().isStress()) {
+            event.getApplicationContext().getBean(PagingStress.class).start();
+        }
+        if (!reproProps.isScheduledPublishing()) {
+            log.info("Scheduled publishing disabled");
+            return;
+        }
+        if (reproProps.getOpenLoop().isEnabled()) {
+            event.getApplicationContext().getBean(OpenLoopPublisher.class).start();
+            return;
+        }
+        if (reproProps.getConcurrentPublishers() > 0) {
+            event.getApplicationContext().getBean(ConcurrentPublisher.class).start();
+            return;
+        }
+
+        Publisher publisher = event.getApplicationContext().getBean(Publisher.class);
 
         ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "publisher");
@@ -79,7 +195,7 @@ public class ArtemisLeakReproApplication implements ApplicationListener<Applicat
     }
 
     @SneakyThrows
-    private static void cleanupArtemisDataDirectory(String path) {
+    static void cleanupArtemisDataDirectory(String path) {
         Path artemisDataPath = Path.of(path);
         if (Files.exists(artemisDataPath)) {
             log.info("Cleaning up existing artemis-data directory: {}", artemisDataPath.toAbsolutePath());
@@ -1,54 +1,263 @@
 package com.example.artemis_leak_repro;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.client.impl.Topology;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.journal.Journal;
+import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.PagingStoreFactory;
 import org.apache.activemq.artemis.core.paging.impl.PagingManagerImpl;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.Binding;
+import org.apache.activemq.artemis.core.postoffice.BindingType;
 import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.postoffice.impl.LocalQueueBinding;
 import org.apache.activemq.artemis.core.postoffice.impl.PostOfficeImpl;
+import org.apache.activemq.artemis.core.postoffice.impl.SimpleAddressManager;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.cluster.ClusterConnection;
 import org.apache.activemq.artemis.core.server.cluster.ClusterManager;
 import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.core.server.impl.AddressInfo;
+import org.apache.activemq.artemis.core.server.management.ManagementService;
+import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
 
-import java.util.Arrays;
-import java.util.HashMap;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
 
 @Slf4j
-@RequiredArgsConstructor
 public class ArtemisMonitor {
 
+    private static final SimpleString PUBLISH_PREFIX = SimpleString.of("publish/");
+
+    // the public accessors copy these maps, read them directly so a snapshot produces no per-entry garbage
+    private static final Field ADDRESS_MANAGER = field(PostOfficeImpl.class, "addressManager");
+    private static final Field ADDRESS_INFO_MAP = field(SimpleAddressManager.class, "addressInfoMap");
+    private static final Field PAGING_STORES = field(PagingManagerImpl.class, "stores");
+
     private final EmbeddedActiveMQ embeddedActiveMQ;
+    private final List<String> prefixes;
+    private final SimpleString[] prefixBytes;
 
-    public Map<String, Integer> getCacheSizes() {
-        Map<String, Integer> map = new HashMap<>();
+    // shared broker services reachable from a structure are not part of its retained size
+    private final ObjectGraphSizer heapSizer = new ObjectGraphSizer(List.of(
+        ActiveMQServer.class,
+        StorageManager.class,
+        PostOffice.class,
+        PagingManager.class,
+        PagingStoreFactory.class,
+        PagingStore.class,
+        DuplicateIDCache.class,
+        Queue.class,
+        HierarchicalRepository.class,
+        AddressSettings.class,
+        Configuration.class,
+        ManagementService.class,
+        Journal.class,
+        ExecutorFactory.class,
+        Executor.class));
+
+    public ArtemisMonitor(EmbeddedActiveMQ embeddedActiveMQ, List<String> prefixes) {
+        this.embeddedActiveMQ = embeddedActiveMQ;
+        this.prefixes = List.copyOf(prefixes);
+        this.prefixBytes = this.prefixes.stream().map(SimpleString::of).toArray(SimpleString[]::new);
+    }
+
+    /**
+     * Takes a snapshot of the address map, bindings, duplicate-ID caches and paging stores.
+     * Each structure is walked once in place, without copying its keys, and names are matched against the configured
+     * prefixes on their {@link SimpleString} bytes, without decoding them to {@link String}.
+     */
+    public BrokerSnapshot snapshot() {
         PagingManagerImpl pagingManager = (PagingManagerImpl) embeddedActiveMQ.getActiveMQServer().getPagingManager();
         PostOfficeImpl postOffice = (PostOfficeImpl) embeddedActiveMQ.getActiveMQServer().getPostOffice();
-        Set<SimpleString> addresses = postOffice.getAddresses();
-        int queueCount = postOffice.getAllBindings().map(b -> ((Queue) b.getBindable()).getName()).collect(Collectors.toSet()).size();
-        int publishQueueCount = postOffice.getAllBindings().filter(b -> ((Queue) b.getBindable()).getName().toString().startsWith("publish/")).collect(Collectors.toSet()).size();
-        ConcurrentMap<SimpleString, DuplicateIDCache> duplicateIDCaches = postOffice.getDuplicateIDCaches();
-        map.put("dup-cache-size", duplicateIDCaches.size());
-        map.put("dup-cache-bridges", duplicateIDCaches
-            .keySet().stream()
-            .filter(ss -> ss.toString().startsWith("BRIDGE"))
-            .collect(Collectors.toSet())
-            .size());
-        map.put("pm-stores", pagingManager.getStoreNames().length);
-        map.put("pm-stores-publish-addrs", Arrays.stream(pagingManager.getStoreNames())
-            .filter(ss -> ss.toString().startsWith("publish/"))
-            .collect(Collectors.toSet()).size());
-        map.put("publish-addresses", addresses.stream().filter(ss -> ss.toString().startsWith("publish/"))
-            .collect(Collectors.toSet())
-            .size());
-        map.put("address-count", addresses.size());
-        map.put("queue-count", queueCount);
-        map.put("publish-queue-count", publishQueueCount);
-        return map;
+
+        int[] addressesByPrefix = new int[prefixBytes.length];
+        int addressCount = 0;
+        for (SimpleString address : addressInfos(postOffice).keySet()) {
+            addressCount++;
+            countPrefix(address, addressesByPrefix);
+        }
+
+        // every queue, including cluster store-and-forward queues, has exactly one local binding;
+        // remote bindings point back at a store-and-forward queue that is already counted
+        int[] queuesByPrefix = new int[prefixBytes.length];
+        int queueCount = 0;
+        Iterator<Binding> bindings = postOffice.getAllBindings().iterator();
+        while (bindings.hasNext()) {
+            Binding binding = bindings.next();
+            if (binding.getType() == BindingType.LOCAL_QUEUE) {
+                queueCount++;
+                countPrefix(binding.getUniqueName(), queuesByPrefix);
+            }
+        }
+
+        int[] duplicateIDCachesByPrefix = new int[prefixBytes.length];
+        int duplicateIDCacheCount = 0;
+        for (SimpleString key : postOffice.getDuplicateIDCaches().keySet()) {
+            duplicateIDCacheCount++;
+            countPrefix(key, duplicateIDCachesByPrefix);
+        }
+
+        int[] pagingStoresByPrefix = new int[prefixBytes.length];
+        int pagingStoreCount = 0;
+        for (SimpleString storeName : pagingStores(pagingManager).keySet()) {
+            pagingStoreCount++;
+            countPrefix(storeName, pagingStoresByPrefix);
+        }
+
+        return new BrokerSnapshot(
+            System.currentTimeMillis(),
+            getClusterNodeCount(),
+            addressCount,
+            queueCount,
+            duplicateIDCacheCount,
+            pagingStoreCount,
+            embeddedActiveMQ.getActiveMQServer().getTotalMessagesAdded(),
+            prefixes,
+            addressesByPrefix,
+            queuesByPrefix,
+            duplicateIDCachesByPrefix,
+            pagingStoresByPrefix);
+    }
+
+    /**
+     * Estimates retained heap of the duplicate-ID caches, paging stores and address map by sizing the object graphs
+     * of up to {@code sampleSize} evenly spaced entries of each and extrapolating to the full structure.
+     */
+    public HeapEstimate estimateRetainedHeap(int sampleSize) {
+        PagingManagerImpl pagingManager = (PagingManagerImpl) embeddedActiveMQ.getActiveMQServer().getPagingManager();
+        PostOfficeImpl postOffice = (PostOfficeImpl) embeddedActiveMQ.getActiveMQServer().getPostOffice();
+
+        HeapEstimate.Structure duplicateIDCaches = estimate(postOffice.getDuplicateIDCaches().values(), sampleSize,
+            cache -> heapSizer.sizeOf(cache));
+        HeapEstimate.Structure pagingStores = estimate(pagingStores(pagingManager).values(), sampleSize,
+            store -> heapSizer.sizeOf(store));
+        HeapEstimate.Structure addresses = estimate(addressInfos(postOffice).keySet(), sampleSize,
+            address -> heapSizer.sizeOf(address, postOffice.getAddressInfo(address), postOffice.lookupBindingsForAddress(address)));
+        return new HeapEstimate(duplicateIDCaches, pagingStores, addresses);
+    }
+
+    /**
+     * Estimates retained heap of the paging stores whose address starts with {@code prefix} only, sizing up to
+     * {@code sampleSize} of them, so stores of unrelated addresses do not skew the per-store figure.
+     */
+    public HeapEstimate.Structure estimatePagingStoreHeap(String prefix, int sampleSize) {
+        PagingManagerImpl pagingManager = (PagingManagerImpl) embeddedActiveMQ.getActiveMQServer().getPagingManager();
+        SimpleString prefixBytes = SimpleString.of(prefix);
+        List<PagingStore> stores = new ArrayList<>();
+        for (Map.Entry<SimpleString, PagingStore> entry : pagingStores(pagingManager).entrySet()) {
+            if (entry.getKey().startsWith(prefixBytes)) {
+                stores.add(entry.getValue());
+            }
+        }
+        return estimate(stores, sampleSize, store -> heapSizer.sizeOf(store));
+    }
+
+    private <T> HeapEstimate.Structure estimate(Collection<T> entries, int sampleSize, SizeFunction<T> sizer) {
+        int count = entries.size();
+        int step = Math.max(1, count / Math.max(1, sampleSize));
+        int index = 0;
+        int sampled = 0;
+        long bytes = 0;
+        for (T entry : entries) {
+            if (index++ % step != 0 || sampled >= sampleSize) {
+                continue;
+            }
+            try {
+                bytes += sizer.sizeOf(entry);
+                sampled++;
+            } catch (Exception e) {
+                // entry changed or was removed while walking it, skip the sample
+                log.debug("Could not size {}", entry, e);
+            }
+        }
+        return new HeapEstimate.Structure(count, sampled, sampled == 0 ? 0 : bytes / sampled);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<SimpleString, PagingStore> pagingStores(PagingManagerImpl pagingManager) {
+        try {
+            // getPageStore() creates missing stores and getStoreNames() copies them, read the map instead
+            return (Map<SimpleString, PagingStore>) PAGING_STORES.get(pagingManager);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("PagingManagerImpl.stores is not accessible", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<SimpleString, AddressInfo> addressInfos(PostOfficeImpl postOffice) {
+        try {
+            // getAddresses() returns a new set of every address on each call
+            return (Map<SimpleString, AddressInfo>) ADDRESS_INFO_MAP.get(ADDRESS_MANAGER.get(postOffice));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("SimpleAddressManager.addressInfoMap is not accessible", e);
+        }
+    }
+
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(type.getSimpleName() + "." + name + " not found", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SizeFunction<T> {
+        long sizeOf(T entry) throws Exception;
+    }
+
+    /**
+     * Cluster bridges with a live forwarding connection; messages the store-and-forward queues have forwarded
+     * (acknowledged by the remote node) and still hold; and messages consumed from and still queued on
+     * queues bound to {@code publish/} addresses.
+     */
+    public record RoutingStats(int connectedBridges, long forwarded, long pending, long delivered, long undelivered) {
+    }
+
+    public RoutingStats routingStats() {
+        ActiveMQServer server = embeddedActiveMQ.getActiveMQServer();
+        int connected = 0;
+        ClusterManager clusterManager = server.getClusterManager();
+        if (clusterManager != null) {
+            for (ClusterConnection connection : clusterManager.getClusterConnections()) {
+                connected += connection.getNodes().size();
+            }
+        }
+        long forwarded = 0;
+        long pending = 0;
+        long delivered = 0;
+        long undelivered = 0;
+        Iterator<Binding> bindings = server.getPostOffice().getAllBindings().iterator();
+        while (bindings.hasNext()) {
+            if (!(bindings.next() instanceof LocalQueueBinding local)) {
+                continue;
+            }
+            Queue queue = local.getQueue();
+            // cluster store-and-forward queues are the only internal queues in this setup
+            if (queue.isInternalQueue()) {
+                forwarded += queue.getMessagesAcknowledged();
+                pending += queue.getMessageCount();
+            } else if (queue.getAddress().startsWith(PUBLISH_PREFIX)) {
+                delivered += queue.getMessagesAcknowledged();
+                undelivered += queue.getMessageCount();
+            }
+        }
+        return new RoutingStats(connected, forwarded, pending, delivered, undelivered);
     }
 
     public int getClusterNodeCount() {
@@ -62,4 +271,12 @@ public class ArtemisMonitor {
         return 1;
     }
 
+    private void countPrefix(SimpleString name, int[] counts) {
+        for (int i = 0; i < prefixBytes.length; i++) {
+            if (name.startsWith(prefixBytes[i])) {
+                counts[i]++;
+            }
+        }
+    }
+
 }
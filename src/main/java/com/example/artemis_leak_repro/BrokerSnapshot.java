@@ -0,0 +1,95 @@
+package com.example.artemis_leak_repro;
+
+import java.util.List;
+
+/**
+ * Point-in-time view of the broker structures watched by {@link ArtemisMonitor}.
+ * {@code messagesAdded} is the broker-wide number of messages added to queues since start.
+ * Each {@code *ByPrefix} array holds one count per entry in {@link #prefixes()}, in the same order.
+ * <p>
+ * The arrays are handed over by {@link ArtemisMonitor} and returned as is rather than copied on every access,
+ * so callers must not modify them. Callers reading the same prefix from many snapshots resolve it once with
+ * {@link #prefixIndex} and use the index accessors.
+ */
+public record BrokerSnapshot(
+    long timestamp,
+    int clusterNodeCount,
+    int addressCount,
+    int queueCount,
+    int duplicateIDCacheCount,
+    int pagingStoreCount,
+    long messagesAdded,
+    List<String> prefixes,
+    int[] addressesByPrefix,
+    int[] queuesByPrefix,
+    int[] duplicateIDCachesByPrefix,
+    int[] pagingStoresByPrefix
+) {
+
+    public BrokerSnapshot {
+        prefixes = List.copyOf(prefixes);
+    }
+
+    /**
+     * Position of {@code prefix} in {@link #prefixes()}, or -1 if it is not a configured bucket.
+     */
+    public int prefixIndex(String prefix) {
+        return prefixes.indexOf(prefix);
+    }
+
+    /**
+     * Number of addresses whose name starts with {@code prefix}, or 0 if the prefix is not a configured bucket.
+     */
+    public int addresses(String prefix) {
+        return addresses(prefixIndex(prefix));
+    }
+
+    /**
+     * Number of addresses whose name starts with the prefix at {@code index}, or 0 if {@code index} is negative.
+     */
+    public int addresses(int index) {
+        return index < 0 ? 0 : addressesByPrefix[index];
+    }
+
+    /**
+     * Number of queues whose name starts with {@code prefix}, or 0 if the prefix is not a configured bucket.
+     */
+    public int queues(String prefix) {
+        return queues(prefixIndex(prefix));
+    }
+
+    /**
+     * Number of queues whose name starts with the prefix at {@code index}, or 0 if {@code index} is negative.
+     */
+    public int queues(int index) {
+        return index < 0 ? 0 : queuesByPrefix[index];
+    }
+
+    /**
+     * Number of duplicate-ID caches whose key starts with {@code prefix}, or 0 if the prefix is not a configured bucket.
+     */
+    public int duplicateIDCaches(String prefix) {
+        return duplicateIDCaches(prefixIndex(prefix));
+    }
+
+    /**
+     * Number of duplicate-ID caches whose key starts with the prefix at {@code index}, or 0 if {@code index} is negative.
+     */
+    public int duplicateIDCaches(int index) {
+        return index < 0 ? 0 : duplicateIDCachesByPrefix[index];
+    }
+
+    /**
+     * Number of paging stores whose address starts with {@code prefix}, or 0 if the prefix is not a configured bucket.
+     */
+    public int pagingStores(String prefix) {
+        return pagingStores(prefixIndex(prefix));
+    }
+
+    /**
+     * Number of paging stores whose address starts with the prefix at {@code index}, or 0 if {@code index} is negative.
+     */
+    public int pagingStores(int index) {
+        return index < 0 ? 0 : pagingStoresByPrefix[index];
+    }
+}
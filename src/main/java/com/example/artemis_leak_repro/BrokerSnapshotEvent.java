@@ -0,0 +1,59 @@
+package com.example.artemis_leak_repro;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JFR event carrying the {@link ArtemisMonitor} counters, emitted once per broker in the JVM.
+ */
+@Name("com.example.artemis_leak_repro.BrokerSnapshot")
+@Label("Broker Snapshot")
+@Category({"Artemis Repro", "Broker"})
+@Description("Sizes of the broker structures affected by ARTEMIS-5773")
+@Period("10 s")
+@StackTrace(false)
+class BrokerSnapshotEvent extends jdk.jfr.Event {
+
+    @Label("Broker")
+    String broker;
+
+    @Label("Cluster Nodes")
+    int clusterNodes;
+
+    @Label("Addresses")
+    int addresses;
+
+    @Label("publish/ Addresses")
+    int publishAddresses;
+
+    @Label("Queues")
+    int queues;
+
+    @Label("Duplicate-ID Caches")
+    int duplicateIDCaches;
+
+    @Label("BRIDGE Duplicate-ID Caches")
+    int bridgeCaches;
+
+    @Label("Paging Stores")
+    int pagingStores;
+
+    @Label("publish/ Paging Stores")
+    int publishPagingStores;
+
+    @Label("Messages Added")
+    long messagesAdded;
+
+    @Label("Connected Bridges")
+    int connectedBridges;
+
+    @Label("Forwarded Messages")
+    long forwarded;
+
+    @Label("Pending Forward Messages")
+    long pendingForward;
+}
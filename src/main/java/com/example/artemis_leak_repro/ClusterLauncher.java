@@ -0,0 +1,215 @@
+package com.example.artemis_leak_repro;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancingType;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Starts N cluster nodes in this JVM and measures how bridges, duplicate-ID caches and cross-node routing scale.
+ * <p>
+ * For each load-balancing strategy in {@code cluster.load-balancing} and each node count in {@code cluster.nodes}
+ * the nodes get generated Core and MQTT ports, their own data directory and static connectors to either every other
+ * node ({@code FULL_MESH}) or their two neighbours ({@code RING}); a ring only allows direct connections, otherwise
+ * every node would still bridge to every node it learns about from the topology. The first {@code cluster.subscriber-nodes} nodes
+ * (all when 0) run the {@code publish/#} MQTT subscription. Once the bridges have formed every node publishes
+ * {@code cluster.batches} batches and the run waits for the store-and-forward and subscription queues to drain.
+ * Bridge count, growth of {@code BRIDGE} duplicate-ID caches, bridge-forwarded messages/s and end-to-end delivered
+ * messages/s are logged and written as JSON to {@code cluster.report}.
+ * <p>
+ * Run with {@code ./gradlew cluster -Pcluster.nodes=2,4,8 -Pcluster.topology=RING}, or compare strategies for the
+ * wildcard-on-one-node case with
+ * {@code -Pcluster.nodes=2 -Pcluster.subscriber-nodes=1 -Pcluster.load-balancing=ON_DEMAND,STRICT,OFF,OFF_WITH_REDISTRIBUTION}.
+ */
+@Slf4j
+public class ClusterLauncher {
+
+    enum Topology {
+        FULL_MESH, RING
+    }
+
+    private final List<Integer> nodeCounts = Arrays.stream(System.getProperty("cluster.nodes", "2,4,8").split(","))
+        .map(String::trim)
+        .map(Integer::parseInt)
+        .toList();
+    private final List<MessageLoadBalancingType> strategies = Arrays.stream(System.getProperty("cluster.load-balancing", "ON_DEMAND").split(","))
+        .map(s -> MessageLoadBalancingType.valueOf(s.trim().toUpperCase(Locale.ROOT)))
+        .toList();
+    private final Topology topology = Topology.valueOf(System.getProperty("cluster.topology", "FULL_MESH").toUpperCase(Locale.ROOT));
+    private final int maxHops = Integer.getInteger("cluster.max-hops", 1);
+    private final int subscriberNodes = Integer.getInteger("cluster.subscriber-nodes", 0);
+    private final int baseCorePort = Integer.getInteger("cluster.base-core-port", 61700);
+    private final int baseMqttPort = Integer.getInteger("cluster.base-mqtt-port", 1900);
+    private final int batches = Integer.getInteger("cluster.batches", 5);
+    private final long formTimeoutMillis = Long.getLong("cluster.form-timeout-millis", 60_000);
+    private final long drainTimeoutMillis = Long.getLong("cluster.drain-timeout-millis", 60_000);
+    private final Path dataRoot = Path.of(System.getProperty("cluster.data-root", "build/cluster"));
+    private final Path report = Path.of(System.getProperty("cluster.report", "build/cluster/report.json"));
+
+    private record Run(MessageLoadBalancingType strategy, int nodes, long formationMillis, int bridges,
+                       int bridgeCacheGrowth, long published, double publishedPerSecond,
+                       long forwarded, double forwardedPerSecond, long delivered, double deliveredPerSecond) {
+
+        double cachesPerBridge() {
+            return bridges == 0 ? 0 : (double) bridgeCacheGrowth / bridges;
+        }
+    }
+
+    private final List<Run> runs = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        new ClusterLauncher().run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        for (MessageLoadBalancingType strategy : strategies) {
+            for (int nodes : nodeCounts) {
+                List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+                try {
+                    for (int i = 0; i < nodes; i++) {
+                        ArtemisLeakReproApplication.cleanupArtemisDataDirectory(dataDirectory(nodes, i).toString());
+                        contexts.add(start(strategy, nodes, i));
+                    }
+                    runs.add(measure(strategy, nodes, contexts));
+                } finally {
+                    for (ConfigurableApplicationContext context : contexts.reversed()) {
+                        context.close();
+                    }
+                }
+            }
+        }
+        writeReport();
+        log.info("[Cluster] {} runs written to {}", runs.size(), report.toAbsolutePath());
+    }
+
+    private ConfigurableApplicationContext start(MessageLoadBalancingType strategy, int nodes, int index) {
+        boolean subscriber = subscriberNodes == 0 || index < subscriberNodes;
+        return SpringApplication.run(ArtemisLeakReproApplication.class,
+            "--amq.broker-name=artemis-node" + (index + 1),
+            "--amq.core-port=" + (baseCorePort + index),
+            "--amq.mqtt-port=" + (baseMqttPort + index),
+            "--amq.data-directory=" + dataDirectory(nodes, index),
+            // every node in this JVM needs its own HTTP port for the stats endpoint
+            "--server.port=0",
+            "--amq.cluster-peers=" + String.join(",", peers(nodes, index)),
+            "--amq.cluster-max-hops=" + maxHops,
+            "--amq.cluster-allow-direct-connections-only=" + (topology == Topology.RING),
+            "--amq.message-load-balancing=" + strategy,
+            // OFF_WITH_REDISTRIBUTION only moves messages once redistribution is enabled
+            "--amq.redistribution-delay=" + (strategy == MessageLoadBalancingType.OFF_WITH_REDISTRIBUTION ? 0 : -1),
+            "--repro.mqtt-consumers=" + (subscriber ? 1 : 0),
+            "--repro.scheduled-publishing=false");
+    }
+
+    private List<String> peers(int nodes, int index) {
+        Set<Integer> peers = new LinkedHashSet<>();
+        if (topology == Topology.RING) {
+            peers.add((index + 1) % nodes);
+            peers.add((index + nodes - 1) % nodes);
+        } else {
+            for (int i = 0; i < nodes; i++) {
+                peers.add(i);
+            }
+        }
+        peers.remove(index);
+        return peers.stream().map(i -> "localhost:" + (baseCorePort + i)).toList();
+    }
+
+    private Path dataDirectory(int nodes, int index) {
+        return dataRoot.resolve("nodes-" + nodes).resolve("artemis-data-node" + (index + 1));
+    }
+
+    private Run measure(MessageLoadBalancingType strategy, int nodes, List<ConfigurableApplicationContext> contexts)
+        throws InterruptedException {
+        List<ArtemisMonitor> monitors = contexts.stream().map(c -> c.getBean(ArtemisMonitor.class)).toList();
+
+        // a full mesh bridges to every other node, a ring only to its neighbours
+        int expectedBridges = topology == Topology.RING ? Math.min(2, nodes - 1) : nodes - 1;
+        long formStart = System.nanoTime();
+        long formationMillis = -1;
+        while (System.nanoTime() - formStart < formTimeoutMillis * 1_000_000) {
+            if (monitors.stream().allMatch(m -> m.routingStats().connectedBridges() >= expectedBridges)) {
+                formationMillis = (System.nanoTime() - formStart) / 1_000_000;
+                break;
+            }
+            Thread.sleep(100);
+        }
+        if (formationMillis < 0) {
+            log.warn("[Cluster] {} nodes: bridges did not fully form within {} ms", nodes, formTimeoutMillis);
+        }
+
+        long forwardedBefore = sum(monitors, ArtemisMonitor.RoutingStats::forwarded);
+        long deliveredBefore = sum(monitors, ArtemisMonitor.RoutingStats::delivered);
+        int cachesBefore = monitors.stream().mapToInt(m -> m.snapshot().duplicateIDCaches("BRIDGE")).sum();
+        long start = System.nanoTime();
+        long published = 0;
+        for (int i = 0; i < batches; i++) {
+            for (ConfigurableApplicationContext context : contexts) {
+                published += context.getBean(Publisher.class).publishBatch();
+            }
+        }
+        double publishSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long drainStart = System.nanoTime();
+        while (System.nanoTime() - drainStart < drainTimeoutMillis * 1_000_000
+            && sum(monitors, s -> s.pending() + s.undelivered()) > 0) {
+            Thread.sleep(10);
+        }
+        double routeSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        int bridges = (int) sum(monitors, ArtemisMonitor.RoutingStats::connectedBridges);
+        long forwarded = sum(monitors, ArtemisMonitor.RoutingStats::forwarded) - forwardedBefore;
+        long delivered = sum(monitors, ArtemisMonitor.RoutingStats::delivered) - deliveredBefore;
+        int cacheGrowth = monitors.stream().mapToInt(m -> m.snapshot().duplicateIDCaches("BRIDGE")).sum() - cachesBefore;
+        Run run = new Run(strategy, nodes, formationMillis, bridges, cacheGrowth,
+            published, published / publishSeconds,
+            forwarded, forwarded / routeSeconds,
+            delivered, delivered / routeSeconds);
+        log.info("[Cluster] {} nodes ({}, {}): bridges {} formed in {} ms, +{} BRIDGE caches ({} per bridge), "
+                + "published {} at {} msg/s, forwarded {} at {} msg/s, delivered {} at {} msg/s",
+            nodes, topology, strategy, bridges, formationMillis, cacheGrowth, String.format("%.1f", run.cachesPerBridge()),
+            published, String.format("%.0f", run.publishedPerSecond()),
+            forwarded, String.format("%.0f", run.forwardedPerSecond()),
+            delivered, String.format("%.0f", run.deliveredPerSecond()));
+        return run;
+    }
+
+    private static long sum(List<ArtemisMonitor> monitors, ToLongFunction<ArtemisMonitor.RoutingStats> field) {
+        return monitors.stream().map(ArtemisMonitor::routingStats).mapToLong(field).sum();
+    }
+
+    private void writeReport() throws Exception {
+        StringBuilder b = new StringBuilder();
+        b.append("{\n");
+        b.append(String.format(Locale.ROOT, "  \"topology\": \"%s\",%n", topology));
+        b.append(String.format(Locale.ROOT, "  \"maxHops\": %d,%n", maxHops));
+        b.append(String.format(Locale.ROOT, "  \"subscriberNodes\": %d,%n", subscriberNodes));
+        b.append(String.format(Locale.ROOT, "  \"batches\": %d,%n", batches));
+        b.append("  \"runs\": [\n");
+        for (int i = 0; i < runs.size(); i++) {
+            Run r = runs.get(i);
+            b.append(String.format(Locale.ROOT,
+                "    {\"strategy\": \"%s\", \"nodes\": %d, \"formationMillis\": %d, \"bridges\": %d, "
+                    + "\"bridgeCacheGrowth\": %d, \"cachesPerBridge\": %.2f, \"published\": %d, \"publishedPerSecond\": %.1f, "
+                    + "\"forwarded\": %d, \"forwardedPerSecond\": %.1f, \"delivered\": %d, \"deliveredPerSecond\": %.1f}%s%n",
+                r.strategy(), r.nodes(), r.formationMillis(), r.bridges(),
+                r.bridgeCacheGrowth(), r.cachesPerBridge(), r.published(), r.publishedPerSecond(),
+                r.forwarded(), r.forwardedPerSecond(), r.delivered(), r.deliveredPerSecond(),
+                i < runs.size() - 1 ? "," : ""));
+        }
+        b.append("  ]\n}\n");
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.writeString(report, b);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@code repro.concurrent-publishers} {@link Publisher}s in parallel on virtual threads.
+ * Every publisher owns its session or client connection and publishes batches back to back, so the broker's address
+ * auto-create path is driven from many connections at once.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ConcurrentPublisher {
+
+    private final Supplier<Publisher> publisherFactory;
+    private final Diagnostics diagnostics;
+    private final ReproProperties reproProperties;
+
+    private final List<Publisher> publishers = new ArrayList<>();
+    private final List<AtomicLong> published = new ArrayList<>();
+    private long[] lastReported;
+    private long lastReportNanos;
+    private volatile boolean running;
+    private ExecutorService executor;
+    private ScheduledExecutorService reporter;
+
+    public void start() throws Exception {
+        int count = reproProperties.getConcurrentPublishers();
+        for (int i = 0; i < count; i++) {
+            Publisher publisher = publisherFactory.get();
+            publisher.init();
+            publishers.add(publisher);
+            published.add(new AtomicLong());
+        }
+        lastReported = new long[count];
+        lastReportNanos = System.nanoTime();
+
+        running = true;
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("publisher-", 0).factory());
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            executor.submit(() -> publishLoop(index));
+        }
+
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "publisher-report");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = reproProperties.getConcurrentReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Started {} concurrent publishers on virtual threads", count);
+    }
+
+    private void publishLoop(int index) {
+        Publisher publisher = publishers.get(index);
+        AtomicLong counter = published.get(index);
+        while (running) {
+            try {
+                counter.addAndGet(publisher.publishBatch());
+            } catch (Exception e) {
+                if (running) {
+                    log.error("Publisher {} failed, stopping it", index, e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void report() {
+        try {
+            diagnostics.logDiagnostics();
+            long now = System.nanoTime();
+            double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+            lastReportNanos = now;
+            StringBuilder perPublisher = new StringBuilder();
+            long total = 0;
+            for (int i = 0; i < lastReported.length; i++) {
+                long current = published.get(i).get();
+                long delta = current - lastReported[i];
+                lastReported[i] = current;
+                total += delta;
+                perPublisher.append(String.format("%n  publisher-%-3d %10.0f msg/s", i, delta / seconds));
+            }
+            log.info("[Concurrent Publisher] {} publishers: {} msg/s aggregate{}",
+                lastReported.length, String.format("%.0f", total / seconds), perPublisher);
+        } catch (Exception e) {
+            log.error("Error reporting publisher throughput", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        for (Publisher publisher : publishers) {
+            publisher.cleanup();
+        }
+        log.info("Concurrent publishers shutdown");
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.artemis_leak_repro;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning the handling of one consumed message. Thresholded so only slow handling is recorded;
+ * set the threshold to 0 ms in a recording settings file to capture every message.
+ */
+@Name("com.example.artemis_leak_repro.Consume")
+@Label("Consume")
+@Category({"Artemis Repro", "Consumer"})
+@Description("Handling of one message by a repro consumer")
+@Threshold("1 ms")
+class ConsumeEvent extends jdk.jfr.Event {
+
+    @Label("Broker")
+    String broker;
+
+    @Label("Protocol")
+    String protocol;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    int bytes;
+
+    @Label("End-to-end Latency")
+    @Timespan(Timespan.MICROSECONDS)
+    long latency;
+}
@@ -8,18 +8,30 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.QueueConfiguration;
 import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
 import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
 import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
 import org.apache.activemq.artemis.api.core.client.ServerLocator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Consumes messages using Core protocol with wildcard subscriptions.
  * This is a control to show whether Core protocol has the same auto-delete issue as MQTT.
+ * <p>
+ * One temporary {@code publish/#} queue is consumed by {@code repro.core-consumer.sessions} sessions with
+ * {@code consumers-per-session} consumers each. Consumer window, acknowledgement batching and pre-acknowledge are
+ * taken from {@code repro.core-consumer.*}; the achieved consume rate and the queue backlog are logged every
+ * {@code report-interval}, so a configuration that keeps up with the publishers shows a flat backlog.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -27,35 +39,59 @@ public class CoreProtocolConsumer {
 
     private final AmqProperties amqProperties;
     private final ReproProperties reproProperties;
+    private final LatencyHistograms latencyHistograms;
 
     private ClientSessionFactory sessionFactory;
-    private final AtomicLong messageCount = new AtomicLong();
-    private ClientSession session;
-    private ClientConsumer consumer;
+    private final LongAdder messageCount = new LongAdder();
+    // owns the temporary queue and answers backlog queries, consumer sessions only consume
+    private ClientSession controlSession;
+    private final List<ClientSession> sessions = new ArrayList<>();
+    private final List<ClientConsumer> consumers = new ArrayList<>();
     private ServerLocator locator;
+    private SimpleString queueName;
+    private ScheduledExecutorService reporter;
+    private long lastReportCount;
+    private long lastReportNanos;
 
     @PostConstruct
     public void init() throws Exception {
+        ReproProperties.CoreConsumer settings = reproProperties.getCoreConsumer();
         String brokerUrl = String.format("tcp://%s:%d", amqProperties.getHost(), amqProperties.getCorePort());
-        this.locator = ActiveMQClient.createServerLocator(brokerUrl);
+        this.locator = ActiveMQClient.createServerLocator(brokerUrl)
+            .setConsumerWindowSize(settings.getConsumerWindowSize())
+            .setAckBatchSize(settings.getAckBatchSize())
+            .setBlockOnAcknowledge(settings.isBlockOnAcknowledge())
+            .setPreAcknowledge(settings.isPreAcknowledge());
         this.sessionFactory = locator.createSessionFactory();
-        createConsumer();
+        createConsumers(settings);
+        startReporter(settings);
+        log.info("[Core Consumer] {} sessions x {} consumers on {} (window {}, ackBatchSize {}, blockOnAcknowledge {}, preAcknowledge {})",
+            settings.getSessions(), settings.getConsumersPerSession(), queueName, settings.getConsumerWindowSize(),
+            settings.getAckBatchSize(), settings.isBlockOnAcknowledge(), settings.isPreAcknowledge());
     }
 
     @PreDestroy
     @SneakyThrows
     public void destroy() {
-        consumer.close();
-        session.close();
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        for (ClientConsumer consumer : consumers) {
+            consumer.close();
+        }
+        // closing a session flushes its pending batched acknowledgements
+        for (ClientSession session : sessions) {
+            session.close();
+        }
+        controlSession.close();
         sessionFactory.close();
         locator.close();
     }
 
-    private void createConsumer() throws Exception {
-        this.session = sessionFactory.createSession();
-        this.session.start();
+    private void createConsumers(ReproProperties.CoreConsumer settings) throws Exception {
+        this.controlSession = sessionFactory.createSession();
 
-        String queueName = "core-consumer-" + UUID.randomUUID();
+        this.queueName = SimpleString.of("core-consumer-" + UUID.randomUUID());
         String wildcardAddress = "publish/#";
 
         QueueConfiguration queueConfig = QueueConfiguration.of(queueName)
@@ -65,20 +101,77 @@ public class CoreProtocolConsumer {
             .setAutoCreated(true)
             .setTemporary(true);
 
-        session.createQueue(queueConfig);
+        controlSession.createQueue(queueConfig);
 
-        this.consumer = session.createConsumer(queueName);
-        consumer.setMessageHandler(message -> {
-            try {
-                long count = messageCount.incrementAndGet();
-                if ((count % reproProperties.getAddressCount()) == 0) {
-                    log.info("[Core Consumer] Received {} messages", count);
-                }
+        for (int s = 0; s < settings.getSessions(); s++) {
+            ClientSession session = sessionFactory.createSession();
+            sessions.add(session);
+            for (int c = 0; c < settings.getConsumersPerSession(); c++) {
+                ClientConsumer consumer = session.createConsumer(queueName);
+                consumer.setMessageHandler(message -> handle(message, settings.isPreAcknowledge()));
+                consumers.add(consumer);
+            }
+            session.start();
+        }
+    }
+
+    private void handle(ClientMessage message, boolean preAcknowledged) {
+        ConsumeEvent event = new ConsumeEvent();
+        event.begin();
+        try {
+            long latency;
+            if (message.containsProperty(LatencyHistograms.SENT_AT)) {
+                latency = latencyHistograms.record(LatencyHistograms.Protocol.CORE,
+                    message.getLongProperty(LatencyHistograms.SENT_AT),
+                    message.getStringProperty(LatencyHistograms.ORIGIN));
+            } else {
+                // published over MQTT, the stamp is only in the body
+                byte[] body = new byte[message.getBodySize()];
+                message.getBodyBuffer().readBytes(body);
+                latency = latencyHistograms.record(LatencyHistograms.Protocol.CORE, body);
+            }
+            messageCount.increment();
+            if (!preAcknowledged) {
+                // only sent once ackBatchSize bytes have been acknowledged on this session
                 message.acknowledge();
-            } catch (ActiveMQException e) {
-                log.error("Error processing message in Core consumer", e);
             }
+            event.end();
+            if (event.shouldCommit()) {
+                event.broker = amqProperties.getBrokerName();
+                event.protocol = "CORE";
+                event.bytes = message.getBodySize();
+                event.latency = latency;
+                event.commit();
+            }
+        } catch (ActiveMQException e) {
+            log.error("Error processing message in Core consumer", e);
+        }
+    }
+
+    private void startReporter(ReproProperties.CoreConsumer settings) {
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "core-consumer-report");
+            t.setDaemon(true);
+            return t;
         });
+        lastReportNanos = System.nanoTime();
+        long interval = settings.getReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void report() {
+        try {
+            long now = System.nanoTime();
+            long count = messageCount.sum();
+            double rate = (count - lastReportCount) / ((now - lastReportNanos) / 1_000_000_000.0);
+            lastReportCount = count;
+            lastReportNanos = now;
+            long backlog = controlSession.queueQuery(queueName).getMessageCount();
+            log.info("[Core Consumer] Received {} messages, {} msg/s, backlog {}",
+                count, String.format("%.0f", rate), backlog);
+        } catch (Exception e) {
+            log.error("Core consumer report failed", e);
+        }
     }
 
 }
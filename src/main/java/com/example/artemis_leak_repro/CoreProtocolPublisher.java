@@ -5,16 +5,22 @@ import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
 import org.apache.activemq.artemis.api.core.client.ClientMessage;
 import org.apache.activemq.artemis.api.core.client.ClientProducer;
 import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.SendAcknowledgementHandler;
 import org.apache.activemq.artemis.api.core.client.ServerLocator;
 import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
 
-import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Publishes messages using Artemis Core protocol (non-MQTT) to demonstrate
@@ -23,68 +29,162 @@ import java.util.UUID;
  */
 @Slf4j
 @RequiredArgsConstructor
-public class CoreProtocolPublisher {
-
-    private static final String ZERO_UUID = "00000000-0000-0000-0000-000000000001";
+public class CoreProtocolPublisher implements Publisher {
 
     private final EmbeddedActiveMQ embeddedActiveMQ;
     private final Diagnostics diagnostics;
+    private final Workload workload;
     private final AmqProperties amqProperties;
     private final ReproProperties reproProperties;
 
     private ServerLocator locator;
     private ClientSessionFactory sessionFactory;
     private ClientSession session;
+    private ClientProducer anonymousProducer;
+    private MessageTemplate template;
 
     @PostConstruct
+    @Override
     public void init() throws Exception {
+        if (reproProperties.isAsyncSend() && reproProperties.getConfirmationWindowSize() <= 0) {
+            // without a window the send acknowledgement handler is never called and every batch would time out
+            throw new IllegalArgumentException("repro.confirmation-window-size must be positive with repro.async-send, was "
+                + reproProperties.getConfirmationWindowSize());
+        }
         // Wait for broker to be ready
         String brokerUrl = String.format("tcp://%s:%d", amqProperties.getHost(), amqProperties.getCorePort());
         this.locator = ActiveMQClient.createServerLocator(brokerUrl);
+        this.template = new MessageTemplate(amqProperties.getBrokerName());
+        if (reproProperties.isAsyncSend()) {
+            locator.setConfirmationWindowSize(reproProperties.getConfirmationWindowSize());
+            locator.setBlockOnDurableSend(false);
+            locator.setBlockOnNonDurableSend(false);
+        }
         this.sessionFactory = locator.createSessionFactory();
         this.session = sessionFactory.createSession();
         session.start();
-        log.info("Core Protocol Publisher initialized");
+        if (reproProperties.isAsyncSend()) {
+            // a null address makes this an anonymous producer, the address is given per send
+            this.anonymousProducer = session.createProducer();
+        }
+        log.info("Core Protocol Publisher initialized (asyncSend={})", reproProperties.isAsyncSend());
     }
 
     /**
      * Publishes messages to multiple unique addresses using Core protocol.
      * Creates a fresh session for each call to avoid "session closed" errors.
      */
-    @SneakyThrows
+    @Override
     public void publishToMultipleAddresses() {
         diagnostics.logDiagnostics();
+        int published = publishBatch();
+        log.info("[Core Publisher] Finished publishing to {} addresses", published);
+    }
 
+    @Override
+    @SneakyThrows
+    public int publishBatch() {
         int addressCount = reproProperties.getAddressCount();
+        BatchConfirmation confirmation = reproProperties.isAsyncSend() ? new BatchConfirmation(addressCount) : null;
+        PublishBatchEvent event = new PublishBatchEvent();
+        event.begin();
+        long bytes = 0;
+        long start = System.nanoTime();
         for (int i = 0; i < addressCount; i++) {
-            String orgId = UUID.randomUUID().toString();
-            String userId = UUID.randomUUID().toString();
-
-            String address = i == 0 ?
-                String.format("publish/%s/%s", ZERO_UUID, ZERO_UUID) :
-                String.format("publish/%s/%s", orgId, userId);
-
-            // Create message
-            ClientMessage message = session.createMessage(true);
-            String payload = String.format("{\"eventType\": \"test.event\", \"index\": %d, \"timestamp\": %d}",
-                i, System.currentTimeMillis());
-            message.getBodyBuffer().writeString(payload);
-            message.setRoutingType(RoutingType.MULTICAST);
+            workload.awaitSendTime(start, i);
+            bytes += send(i, LatencyHistograms.nowMicros(), confirmation);
+        }
+
+        if (confirmation != null) {
+            confirmation.await();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.broker = amqProperties.getBrokerName();
+            event.protocol = "CORE";
+            event.addressCount = addressCount;
+            event.bytes = bytes;
+            event.durable = reproProperties.isDurable();
+            event.commit();
+        }
+        return addressCount;
+    }
+
+    @Override
+    @SneakyThrows
+    public void publish(int index, long sentAtMicros) {
+        // open-loop sends are not confirmed individually, failures surface through the session
+        send(index, sentAtMicros, null);
+    }
+
+    private int send(int index, long sentAtMicros, SendAcknowledgementHandler confirmation) throws ActiveMQException {
+        SimpleString address = workload.nextAddressName(index);
+
+        // Create message
+        ClientMessage message = session.createMessage(reproProperties.isDurable());
+        // raw UTF-8 so MQTT subscribers receive the JSON as-is
+        int bytes = template.write(message.getBodyBuffer(), index, sentAtMicros, workload.nextPayloadSize());
+        message.putLongProperty(MessageTemplate.SENT_AT_PROPERTY, sentAtMicros);
+        message.putStringProperty(MessageTemplate.ORIGIN_PROPERTY, template.origin());
+        message.setRoutingType(RoutingType.MULTICAST);
+        if (anonymousProducer == null) {
             try (ClientProducer producer = session.createProducer(address)) {
                 producer.send(message);
             }
+        } else if (confirmation != null) {
+            anonymousProducer.send(address, message, confirmation);
+        } else {
+            anonymousProducer.send(address, message);
         }
-
-        log.info("[Core Publisher] Finished publishing to {} addresses", addressCount);
+        return bytes;
     }
 
     @PreDestroy
+    @Override
     @SneakyThrows
     public void cleanup() {
+        if (anonymousProducer != null) {
+            anonymousProducer.close();
+        }
         session.close();
         sessionFactory.close();
         locator.close();
         log.info("Core Protocol Publisher shutdown");
     }
+
+    /**
+     * Tracks broker confirmations for one batch of asynchronous sends.
+     */
+    private static class BatchConfirmation implements SendAcknowledgementHandler {
+
+        private final CountDownLatch pending;
+        private final AtomicInteger failed = new AtomicInteger();
+
+        BatchConfirmation(int messageCount) {
+            this.pending = new CountDownLatch(messageCount);
+        }
+
+        @Override
+        public void sendAcknowledged(Message message) {
+            pending.countDown();
+        }
+
+        @Override
+        public void sendFailed(Message message, Exception e) {
+            if (failed.incrementAndGet() == 1) {
+                log.error("[Core Publisher] Send to {} failed", message.getAddress(), e);
+            }
+            pending.countDown();
+        }
+
+        void await() throws InterruptedException {
+            if (!pending.await(30, TimeUnit.SECONDS)) {
+                log.warn("[Core Publisher] Timed out with {} sends unconfirmed", pending.getCount());
+            }
+            if (failed.get() > 0) {
+                log.warn("[Core Publisher] {} sends failed in batch", failed.get());
+            }
+        }
+    }
 }
 
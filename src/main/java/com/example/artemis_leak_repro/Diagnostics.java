@@ -1,15 +1,8 @@
 package com.example.artemis_leak_repro;
 
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Map;
-import java.util.stream.Stream;
-
 /**
  * Background thread that periodically logs diagnostic information about the broker state.
  */
@@ -19,21 +12,40 @@ public class Diagnostics {
 
     private final ArtemisMonitor monitor;
     private final AmqProperties amqProperties;
+    private final DiskUsageTracker diskUsage;
+    private final ReproProperties reproProperties;
 
     void logDiagnostics() {
         try {
-            Map<String, Integer> stats = monitor.getCacheSizes();
+            BrokerSnapshot stats = monitor.snapshot();
             String dir = amqProperties.getDataDirectory();
+            long totalBytes = diskUsage.getTotalBytes();
             StringBuilder b = new StringBuilder();
             b.append("\n=========================\n");
             b.append(String.format("===== %s =====\n", amqProperties.getBrokerName()));
             b.append("=========================\n");
-            b.append(String.format("Cluster Nodes:    %5s\n", monitor.getClusterNodeCount()));
-            b.append(String.format("Addresses:        %5s total, %5s publish/* addresses\n", stats.get("address-count"), stats.get("publish-addresses")));
-            b.append(String.format("Queues:           %5s total, %5s publish/# wildcard queues\n", stats.get("queue-count"), stats.get("publish-queue-count")));
-            b.append(String.format("DuplicateIDCache: %5s total, %5s BRIDGE caches\n", stats.get("dup-cache-size"), stats.get("dup-cache-bridges")));
-            b.append(String.format("PagingStores:     %5s total, %5s publish/* stores\n", stats.get("pm-stores"), stats.get("pm-stores-publish-addrs")));
-            b.append(String.format("Journal Size:     %5s MB (%s)\n", getDirectorySize(dir), dir));
+            b.append(String.format("Cluster Nodes:    %5s\n", stats.clusterNodeCount()));
+            b.append(String.format("Addresses:        %5s total, %5s publish/* addresses\n", stats.addressCount(), stats.addresses("publish/")));
+            b.append(String.format("Queues:           %5s total, %5s publish/# wildcard queues\n", stats.queueCount(), stats.queues("publish/")));
+            b.append(String.format("DuplicateIDCache: %5s total, %5s BRIDGE caches\n", stats.duplicateIDCacheCount(), stats.duplicateIDCaches("BRIDGE")));
+            b.append(String.format("PagingStores:     %5s total, %5s publish/* stores\n", stats.pagingStoreCount(), stats.pagingStores("publish/")));
+            b.append(String.format("Journal Size:     %5s MB, %d bytes in %d files (%s)\n",
+                totalBytes / 1024 / 1024, totalBytes, diskUsage.getTotalFiles(), dir));
+            if (diskUsage.isDegraded()) {
+                b.append("  (not all directories watched, sizes refresh at the reconcile interval)\n");
+            }
+            for (DiskUsageTracker.Area area : DiskUsageTracker.Area.values()) {
+                DiskUsageTracker.DiskUsage usage = diskUsage.getUsage(area);
+                b.append(String.format("  %-15s %12d bytes, %6d files\n", area.getDirectory() + ":", usage.bytes(), usage.files()));
+            }
+            if (reproProperties.getHeapSampleSize() > 0) {
+                HeapEstimate heap = monitor.estimateRetainedHeap(reproProperties.getHeapSampleSize());
+                b.append(String.format("Retained Heap:    %8.1f MB total, %6d bytes/address (estimated)\n",
+                    heap.totalBytes() / 1024.0 / 1024.0, heap.bytesPerAddress()));
+                appendHeap(b, "DuplicateIDCache:", heap.duplicateIDCaches());
+                appendHeap(b, "PagingStores:", heap.pagingStores());
+                appendHeap(b, "Addresses:", heap.addresses());
+            }
             b.append("==========================");
             log.info(b.toString());
         } catch (Exception e) {
@@ -41,16 +53,9 @@ public class Diagnostics {
         }
     }
 
-    @SneakyThrows
-    public String getDirectorySize(String path) {
-        Path folder = Paths.get(path);
-
-        try (Stream<Path> walk = Files.walk(folder)) {
-            return String.valueOf(walk
-                .filter(p -> p.toFile().isFile())
-                .mapToLong(p -> p.toFile().length())
-                .sum() / 1024 / 1024);
-        }
+    private static void appendHeap(StringBuilder b, String label, HeapEstimate.Structure structure) {
+        b.append(String.format("  %-17s %8.1f MB, %6d bytes/entry (%d of %d sampled)\n", label,
+            structure.totalBytes() / 1024.0 / 1024.0, structure.bytesPerEntry(), structure.sampled(), structure.entries()));
     }
 
 }
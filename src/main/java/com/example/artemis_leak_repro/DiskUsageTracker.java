@@ -0,0 +1,340 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tracks bytes and file counts per broker data subdirectory without walking the tree on every read.
+ * File sizes are updated from {@link WatchService} events as the broker creates, grows and deletes files;
+ * a full reconciliation walk runs at a fixed interval and whenever the watch service overflows.
+ * <p>
+ * Every directory needs its own watch, and a broker with many paging stores can exhaust
+ * {@code fs.inotify.max_user_watches}. Directories that cannot be registered are left to the reconciliation walk:
+ * the tracker reports itself {@linkplain #isDegraded() degraded}, and totals for those directories lag by up to
+ * {@code repro.disk-usage-reconcile-interval} until a walk registers all of them again.
+ */
+@Slf4j
+public class DiskUsageTracker {
+
+    /**
+     * Subdirectories of the data directory configured by {@link ArtemisEmbeddedConfig}.
+     */
+    public enum Area {
+        JOURNAL("journal"),
+        BINDINGS("bindings"),
+        PAGING("paging"),
+        LARGE_MESSAGES("largemessages");
+
+        private final String directory;
+
+        Area(String directory) {
+            this.directory = directory;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+    }
+
+    public record DiskUsage(long bytes, long files) {
+    }
+
+    private final Path dataDirectory;
+    private final Duration reconcileInterval;
+
+    // only touched by the watcher thread
+    private final Map<Path, Long> fileSizes = new HashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final long[] bytes = new long[Area.values().length];
+    private final long[] files = new long[Area.values().length];
+    private int failedRegistrations;
+
+    private volatile Map<Area, DiskUsage> usage = emptyUsage();
+    private volatile boolean degraded;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public DiskUsageTracker(AmqProperties amqProperties, ReproProperties reproProperties) {
+        this.dataDirectory = Paths.get(amqProperties.getDataDirectory()).toAbsolutePath();
+        this.reconcileInterval = reproProperties.getDiskUsageReconcileInterval();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        reconcile();
+        this.watcher = new Thread(this::watch, "disk-usage-" + dataDirectory.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (watchService != null) {
+            watchService.close();
+            watcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public DiskUsage getUsage(Area area) {
+        return usage.get(area);
+    }
+
+    public long getTotalBytes() {
+        return usage.values().stream().mapToLong(DiskUsage::bytes).sum();
+    }
+
+    public long getTotalFiles() {
+        return usage.values().stream().mapToLong(DiskUsage::files).sum();
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Whether some directories could not be watched, so their totals are only refreshed by the reconciliation walk.
+     */
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Bytes and files under {@code root} from a full walk, for readings that must not lag behind a burst of writes.
+     */
+    public static DiskUsage walk(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return new DiskUsage(0, 0);
+        }
+        long bytes = 0;
+        long files = 0;
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path file : walk.filter(Files::isRegularFile).toList()) {
+                bytes += file.toFile().length();
+                files++;
+            }
+        }
+        return new DiskUsage(bytes, files);
+    }
+
+    private void watch() {
+        long nextReconcile = System.nanoTime() + reconcileInterval.toNanos();
+        while (true) {
+            try {
+                WatchKey key = watchService.poll(Math.max(0, nextReconcile - System.nanoTime()), TimeUnit.NANOSECONDS);
+                boolean overflow = false;
+                if (key != null) {
+                    overflow = processEvents(key);
+                }
+                if (overflow || System.nanoTime() >= nextReconcile) {
+                    nextReconcile = System.nanoTime() + reconcileInterval.toNanos();
+                    reconcile();
+                } else {
+                    publish();
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                log.debug("Disk usage watcher for {} stopped", dataDirectory);
+                return;
+            } catch (Exception e) {
+                // keep the thread alive, the next reconciliation walk rebuilds the totals
+                log.error("Disk usage watcher for {} failed, retrying at the next reconciliation", dataDirectory, e);
+            }
+        }
+    }
+
+    private boolean processEvents(WatchKey key) throws IOException {
+        Path directory = watchedDirectories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (!path.startsWith(dataDirectory)) {
+                // sibling of the data directory seen while waiting for the broker to create it
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                removeTree(path);
+            } else if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    addTree(path);
+                }
+            } else {
+                updateFile(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Rebuilds all totals from a full walk and registers any directories not yet watched.
+     */
+    private void reconcile() throws IOException {
+        fileSizes.clear();
+        Arrays.fill(bytes, 0);
+        Arrays.fill(files, 0);
+        failedRegistrations = 0;
+        if (Files.isDirectory(dataDirectory)) {
+            addTree(dataDirectory);
+        } else {
+            // broker has not created its data directory yet, watch the parent until it does
+            Path parent = dataDirectory.getParent();
+            Files.createDirectories(parent);
+            register(parent);
+        }
+        if (degraded && failedRegistrations == 0) {
+            degraded = false;
+            log.info("Disk usage tracker for {} watches all directories again", dataDirectory);
+        }
+        publish();
+    }
+
+    private void addTree(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        register(path);
+                    } else if (attributes.isRegularFile()) {
+                        setSize(path, attributes.size());
+                    }
+                } catch (NoSuchFileException e) {
+                    // deleted while walking, the delete event or next reconciliation settles it
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            if (!(e.getCause() instanceof NoSuchFileException)) {
+                throw e.getCause();
+            }
+        } catch (NoSuchFileException e) {
+            // root deleted before the walk started
+        }
+    }
+
+    private void register(Path directory) {
+        try {
+            WatchKey key = directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(key, directory);
+        } catch (NoSuchFileException e) {
+            // deleted before it could be watched
+        } catch (IOException e) {
+            // typically fs.inotify.max_user_watches, the walk has already counted the directory's files
+            failedRegistrations++;
+            if (!degraded) {
+                degraded = true;
+                log.warn("Disk usage tracker for {} cannot watch {} ({}), falling back to a full walk every {}",
+                    dataDirectory, directory, e.toString(), reconcileInterval);
+            }
+        }
+    }
+
+    private void updateFile(Path path) {
+        try {
+            setSize(path, Files.size(path));
+        } catch (IOException e) {
+            removeTree(path);
+        }
+    }
+
+    private void setSize(Path path, long size) {
+        int area = areaOf(path);
+        if (area < 0) {
+            return;
+        }
+        Long previous = fileSizes.put(path, size);
+        if (previous == null) {
+            files[area]++;
+            bytes[area] += size;
+        } else {
+            bytes[area] += size - previous;
+        }
+    }
+
+    private void removeTree(Path path) {
+        Long size = fileSizes.remove(path);
+        if (size != null) {
+            removeFile(path, size);
+            return;
+        }
+        // a removed directory takes its files with it
+        Iterator<Map.Entry<Path, Long>> it = fileSizes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getKey().startsWith(path)) {
+                removeFile(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+        watchedDirectories.values().removeIf(dir -> dir.startsWith(path));
+    }
+
+    private void removeFile(Path path, long size) {
+        int area = areaOf(path);
+        files[area]--;
+        bytes[area] -= size;
+    }
+
+    private int areaOf(Path path) {
+        if (!path.startsWith(dataDirectory) || path.getNameCount() <= dataDirectory.getNameCount()) {
+            return -1;
+        }
+        String first = path.getName(dataDirectory.getNameCount()).toString();
+        for (Area area : Area.values()) {
+            if (area.getDirectory().equals(first)) {
+                return area.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    private void publish() {
+        Map<Area, DiskUsage> next = new EnumMap<>(Area.class);
+        for (Area area : Area.values()) {
+            next.put(area, new DiskUsage(bytes[area.ordinal()], files[area.ordinal()]));
+        }
+        this.usage = next;
+    }
+
+    private static Map<Area, DiskUsage> emptyUsage() {
+        Map<Area, DiskUsage> empty = new EnumMap<>(Area.class);
+        for (Area area : Area.values()) {
+            empty.put(area, new DiskUsage(0, 0));
+        }
+        return empty;
+    }
+}
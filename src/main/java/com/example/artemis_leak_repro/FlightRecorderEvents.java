@@ -0,0 +1,80 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Emits a {@link BrokerSnapshotEvent} per broker whenever a JFR recording with the event enabled asks for it.
+ * <p>
+ * JFR allows one periodic hook per event type, so the hook is registered once per JVM and iterates every node
+ * started in it. Snapshots are only taken while a recording is running, so there is no cost otherwise.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FlightRecorderEvents {
+
+    private static final List<FlightRecorderEvents> NODES = new CopyOnWriteArrayList<>();
+    private static final Runnable HOOK = FlightRecorderEvents::emitSnapshots;
+
+    private final ArtemisMonitor monitor;
+    private final AmqProperties amqProperties;
+
+    @PostConstruct
+    public void start() {
+        synchronized (NODES) {
+            if (NODES.isEmpty()) {
+                FlightRecorder.addPeriodicEvent(BrokerSnapshotEvent.class, HOOK);
+            }
+            NODES.add(this);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronized (NODES) {
+            NODES.remove(this);
+            if (NODES.isEmpty()) {
+                FlightRecorder.removePeriodicEvent(HOOK);
+            }
+        }
+    }
+
+    private static void emitSnapshots() {
+        for (FlightRecorderEvents node : NODES) {
+            try {
+                node.emitSnapshot();
+            } catch (Exception e) {
+                log.debug("Could not snapshot {} for JFR", node.amqProperties.getBrokerName(), e);
+            }
+        }
+    }
+
+    private void emitSnapshot() {
+        BrokerSnapshotEvent event = new BrokerSnapshotEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        BrokerSnapshot snapshot = monitor.snapshot();
+        ArtemisMonitor.RoutingStats routing = monitor.routingStats();
+        event.broker = amqProperties.getBrokerName();
+        event.clusterNodes = snapshot.clusterNodeCount();
+        event.addresses = snapshot.addressCount();
+        event.publishAddresses = snapshot.addresses("publish/");
+        event.queues = snapshot.queueCount();
+        event.duplicateIDCaches = snapshot.duplicateIDCacheCount();
+        event.bridgeCaches = snapshot.duplicateIDCaches("BRIDGE");
+        event.pagingStores = snapshot.pagingStoreCount();
+        event.publishPagingStores = snapshot.pagingStores("publish/");
+        event.messagesAdded = snapshot.messagesAdded();
+        event.connectedBridges = routing.connectedBridges();
+        event.forwarded = routing.forwarded();
+        event.pendingForward = routing.pending();
+        event.commit();
+    }
+}
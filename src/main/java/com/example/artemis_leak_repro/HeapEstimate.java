@@ -0,0 +1,35 @@
+package com.example.artemis_leak_repro;
+
+/**
+ * Estimated heap retained by the broker structures that grow with the number of addresses,
+ * extrapolated from a sample of entries of each structure.
+ */
+public record HeapEstimate(
+    Structure duplicateIDCaches,
+    Structure pagingStores,
+    Structure addresses
+) {
+
+    /**
+     * @param entries       number of entries in the structure
+     * @param sampled       number of entries whose object graphs were sized
+     * @param bytesPerEntry mean retained bytes of the sampled entries
+     */
+    public record Structure(int entries, int sampled, long bytesPerEntry) {
+
+        public long totalBytes() {
+            return entries * bytesPerEntry;
+        }
+    }
+
+    public long totalBytes() {
+        return duplicateIDCaches.totalBytes() + pagingStores.totalBytes() + addresses.totalBytes();
+    }
+
+    /**
+     * Total estimated bytes divided by the number of addresses, i.e. what each additional address costs.
+     */
+    public long bytesPerAddress() {
+        return addresses.entries() == 0 ? 0 : totalBytes() / addresses.entries();
+    }
+}
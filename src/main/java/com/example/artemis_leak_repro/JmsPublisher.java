@@ -0,0 +1,123 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.BytesMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+import org.messaginghub.pooled.jms.JmsPoolConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+
+/**
+ * Publishes messages through Spring's {@link JmsTemplate} over a pooled-jms connection factory,
+ * the path most of our services use. Every send borrows a pooled session and producer and returns them,
+ * so the difference to {@link CoreProtocolPublisher} is the cost of the JMS and pooling layers.
+ * Topics map to multicast addresses, so messages route the same way as the Core publisher's.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JmsPublisher implements Publisher {
+
+    private final EmbeddedActiveMQ embeddedActiveMQ;
+    private final Diagnostics diagnostics;
+    private final Workload workload;
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+
+    private ActiveMQConnectionFactory connectionFactory;
+    private JmsPoolConnectionFactory poolFactory;
+    private JmsTemplate jmsTemplate;
+    private MessageTemplate template;
+
+    @PostConstruct
+    @Override
+    public void init() {
+        String brokerUrl = String.format("tcp://%s:%d", amqProperties.getHost(), amqProperties.getCorePort());
+        this.connectionFactory = new ActiveMQConnectionFactory(brokerUrl);
+        this.template = new MessageTemplate(amqProperties.getBrokerName());
+        if (reproProperties.isAsyncSend()) {
+            // JmsTemplate has no completion listener, async sends are not confirmed per batch
+            connectionFactory.setConfirmationWindowSize(reproProperties.getConfirmationWindowSize());
+            connectionFactory.setBlockOnDurableSend(false);
+            connectionFactory.setBlockOnNonDurableSend(false);
+        }
+
+        ReproProperties.Jms jms = reproProperties.getJms();
+        this.poolFactory = new JmsPoolConnectionFactory();
+        poolFactory.setConnectionFactory(connectionFactory);
+        poolFactory.setMaxConnections(jms.getMaxConnections());
+        poolFactory.setMaxSessionsPerConnection(jms.getMaxSessionsPerConnection());
+        poolFactory.setUseAnonymousProducers(jms.isUseAnonymousProducers());
+        poolFactory.setExplicitProducerCacheSize(jms.getExplicitProducerCacheSize());
+
+        this.jmsTemplate = new JmsTemplate(poolFactory);
+        jmsTemplate.setPubSubDomain(true);
+        jmsTemplate.setExplicitQosEnabled(true);
+        jmsTemplate.setDeliveryPersistent(reproProperties.isDurable());
+        log.info("JMS Publisher initialized (maxConnections={}, maxSessionsPerConnection={}, anonymousProducers={}, producerCache={})",
+            jms.getMaxConnections(), jms.getMaxSessionsPerConnection(), jms.isUseAnonymousProducers(),
+            jms.getExplicitProducerCacheSize());
+    }
+
+    @Override
+    public void publishToMultipleAddresses() {
+        diagnostics.logDiagnostics();
+        int published = publishBatch();
+        log.info("[JMS Publisher] Finished publishing to {} addresses", published);
+    }
+
+    @Override
+    public int publishBatch() {
+        int addressCount = reproProperties.getAddressCount();
+        PublishBatchEvent event = new PublishBatchEvent();
+        event.begin();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < addressCount; i++) {
+            workload.awaitSendTime(start, i);
+            bytes += send(i, LatencyHistograms.nowMicros());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.broker = amqProperties.getBrokerName();
+            event.protocol = "JMS";
+            event.addressCount = addressCount;
+            event.bytes = bytes;
+            event.durable = reproProperties.isDurable();
+            event.commit();
+        }
+        return addressCount;
+    }
+
+    @Override
+    public void publish(int index, long sentAtMicros) {
+        send(index, sentAtMicros);
+    }
+
+    private int send(int index, long sentAtMicros) {
+        String address = workload.nextAddress(index);
+        byte[] payload = template.payload(index, sentAtMicros, workload.nextPayloadSize());
+        jmsTemplate.send(address, session -> {
+            BytesMessage message = session.createBytesMessage();
+            message.writeBytes(payload);
+            message.setLongProperty(LatencyHistograms.SENT_AT, sentAtMicros);
+            message.setStringProperty(LatencyHistograms.ORIGIN, amqProperties.getBrokerName());
+            return message;
+        });
+        return payload.length;
+    }
+
+    @PreDestroy
+    @Override
+    public void cleanup() {
+        if (poolFactory != null) {
+            poolFactory.stop();
+        }
+        if (connectionFactory != null) {
+            connectionFactory.close();
+        }
+        log.info("JMS Publisher shutdown");
+    }
+}
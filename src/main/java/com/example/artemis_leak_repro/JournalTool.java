@@ -0,0 +1,247 @@
+package com.example.artemis_leak_repro;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.WildcardConfiguration;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.LoaderCallback;
+import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DuplicateIDEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.PersistentAddressBindingEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.PersistentQueueBindingEncoding;
+import org.apache.activemq.artemis.core.postoffice.Address;
+import org.apache.activemq.artemis.core.postoffice.impl.AddressImpl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline inspection of a stopped broker's journals, and purge of duplicate-ID records for addresses that no longer
+ * have durable bindings.
+ * <p>
+ * Streams the bindings journal to collect the addresses that still have a durable address or queue binding, then
+ * streams the message journal and counts duplicate-ID records per cache. {@code BRIDGE.} caches are attributed to the
+ * address they were created for. Caches whose concrete address has no binding are stale: on restart they would be
+ * rebuilt into {@code PostOfficeImpl.duplicateIDCache} for addresses that no longer exist. A wildcard binding such as
+ * the {@code publish/#} subscription does not keep the caches of the addresses it matches in use, and as it is always
+ * persisted it would otherwise exempt every leaked cache; {@code journal.keep-wildcard-matches=true} keeps them
+ * anyway. With {@code journal.purge=true} stale records are deleted and the message journal is compacted, leaving
+ * every other record, including durable messages, untouched.
+ * <p>
+ * Run with {@code ./gradlew journalTool -Pjournal.data-directory=target/artemis-data-node1} while the broker is down.
+ */
+@Slf4j
+public class JournalTool {
+
+    private static final SimpleString BRIDGE_CACHE_PREFIX = SimpleString.of("BRIDGE.");
+
+    private final Path dataDirectory = Path.of(System.getProperty("journal.data-directory", "target/artemis-data-node1"));
+    private final boolean purge = Boolean.getBoolean("journal.purge");
+    private final int top = Integer.getInteger("journal.top", 20);
+    private final int fileSize = Integer.getInteger("journal.file-size", new AmqProperties().getJournalFileSize());
+    private final int minFiles = Integer.getInteger("journal.min-files", new AmqProperties().getJournalMinFiles());
+    private final boolean keepWildcardMatches;
+    private final WildcardConfiguration wildcards = new WildcardConfiguration();
+
+    private final Set<SimpleString> boundAddresses = new HashSet<>();
+    private final List<Address> wildcardBindings = new ArrayList<>();
+    // record ID to cache name; names are shared so each distinct cache is held once
+    private final Map<Long, SimpleString> duplicateIDRecords = new HashMap<>();
+    private final Map<SimpleString, SimpleString> cacheNames = new HashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        new JournalTool().run();
+    }
+
+    JournalTool() {
+        this(Boolean.getBoolean("journal.keep-wildcard-matches"));
+    }
+
+    JournalTool(boolean keepWildcardMatches) {
+        this.keepWildcardMatches = keepWildcardMatches;
+        // same wildcard syntax as ArtemisEmbeddedConfig
+        wildcards.setDelimiter('/');
+        wildcards.setAnyWords('#');
+        wildcards.setSingleWord('+');
+    }
+
+    void run() throws Exception {
+        Path lockFile = dataDirectory.resolve("journal").resolve("server.lock");
+        try (FileChannel channel = Files.exists(lockFile) ? new RandomAccessFile(lockFile.toFile(), "rw").getChannel() : null;
+             FileLock lock = channel == null ? null : channel.tryLock()) {
+            if (channel != null && lock == null) {
+                throw new IllegalStateException("Broker is running against " + dataDirectory.toAbsolutePath());
+            }
+            loadBindings();
+            JournalImpl messages = journal("journal", "activemq-data", "amq");
+            messages.start();
+            try {
+                messages.load(new RecordCallback() {
+                    @Override
+                    public void addRecord(RecordInfo info) {
+                        if (info.getUserRecordType() == JournalRecordIds.DUPLICATE_ID) {
+                            DuplicateIDEncoding encoding = new DuplicateIDEncoding();
+                            encoding.decode(ActiveMQBuffers.wrappedBuffer(info.data));
+                            duplicateIDRecords.put(info.id, cacheNames.computeIfAbsent(encoding.address, a -> a));
+                        }
+                    }
+
+                    @Override
+                    public void deleteRecord(long id) {
+                        duplicateIDRecords.remove(id);
+                    }
+                });
+                report(messages);
+            } finally {
+                messages.stop();
+            }
+        }
+    }
+
+    private void loadBindings() throws Exception {
+        JournalImpl bindings = journal("bindings", "activemq-bindings", "bindings");
+        Map<Long, SimpleString> addresses = new HashMap<>();
+        bindings.start();
+        try {
+            bindings.load(new RecordCallback() {
+                @Override
+                public void addRecord(RecordInfo info) {
+                    if (info.getUserRecordType() == JournalRecordIds.QUEUE_BINDING_RECORD) {
+                        PersistentQueueBindingEncoding encoding = new PersistentQueueBindingEncoding();
+                        encoding.decode(ActiveMQBuffers.wrappedBuffer(info.data));
+                        addresses.put(info.id, encoding.getAddress());
+                    } else if (info.getUserRecordType() == JournalRecordIds.ADDRESS_BINDING_RECORD) {
+                        PersistentAddressBindingEncoding encoding = new PersistentAddressBindingEncoding();
+                        encoding.decode(ActiveMQBuffers.wrappedBuffer(info.data));
+                        addresses.put(info.id, encoding.getName());
+                    }
+                }
+
+                @Override
+                public void deleteRecord(long id) {
+                    addresses.remove(id);
+                }
+            });
+        } finally {
+            bindings.stop();
+        }
+        for (SimpleString address : addresses.values()) {
+            bind(address);
+        }
+        log.info("[Journal] {}: {} bound addresses, {} wildcard bindings",
+            dataDirectory, boundAddresses.size(), wildcardBindings.size());
+    }
+
+    private void report(JournalImpl messages) throws Exception {
+        Map<SimpleString, Integer> recordsPerCache = new HashMap<>();
+        for (SimpleString cache : duplicateIDRecords.values()) {
+            recordsPerCache.merge(cache, 1, Integer::sum);
+        }
+        Set<SimpleString> staleCaches = new HashSet<>();
+        int staleRecords = 0;
+        for (Map.Entry<SimpleString, Integer> entry : recordsPerCache.entrySet()) {
+            if (isStale(entry.getKey())) {
+                staleCaches.add(entry.getKey());
+                staleRecords += entry.getValue();
+            }
+        }
+
+        log.info("[Journal] {}: {} duplicate-ID records in {} caches, {} records in {} caches without bindings",
+            dataDirectory, duplicateIDRecords.size(), recordsPerCache.size(), staleRecords, staleCaches.size());
+        recordsPerCache.entrySet().stream()
+            .sorted(Map.Entry.<SimpleString, Integer>comparingByValue().reversed())
+            .limit(top)
+            .forEach(e -> log.info("[Journal]   {} {}{}", String.format("%7d", e.getValue()), e.getKey(),
+                staleCaches.contains(e.getKey()) ? " (stale)" : ""));
+
+        if (!purge || staleRecords == 0) {
+            return;
+        }
+        long before = journalBytes();
+        for (Map.Entry<Long, SimpleString> record : duplicateIDRecords.entrySet()) {
+            if (staleCaches.contains(record.getValue())) {
+                messages.appendDeleteRecord(record.getKey(), false);
+            }
+        }
+        messages.scheduleCompactAndBlock(60);
+        log.info("[Journal] {}: purged {} duplicate-ID records, message journal {} -> {} bytes",
+            dataDirectory, staleRecords, before, journalBytes());
+    }
+
+    /**
+     * Records a durable address or queue binding found in the bindings journal.
+     */
+    void bind(SimpleString address) {
+        boundAddresses.add(address);
+        AddressImpl parsed = new AddressImpl(address, wildcards);
+        if (parsed.containsWildCard()) {
+            wildcardBindings.add(parsed);
+        }
+    }
+
+    /**
+     * Whether the duplicate-ID cache named {@code cache} belongs to an address without a binding of its own.
+     */
+    boolean isStale(SimpleString cache) {
+        SimpleString address = cache.startsWith(BRIDGE_CACHE_PREFIX)
+            ? cache.subSeq(BRIDGE_CACHE_PREFIX.length(), cache.length())
+            : cache;
+        if (boundAddresses.contains(address)) {
+            return false;
+        }
+        if (!keepWildcardMatches) {
+            return true;
+        }
+        AddressImpl parsed = new AddressImpl(address, wildcards);
+        for (Address wildcard : wildcardBindings) {
+            if (wildcard.matches(parsed)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JournalImpl journal(String directory, String prefix, String extension) {
+        SequentialFileFactory files = new NIOSequentialFileFactory(dataDirectory.resolve(directory).toFile(), 1);
+        // compaction is triggered explicitly after a purge
+        return new JournalImpl(fileSize, minFiles, minFiles, 0, 0, files, prefix, extension, 1);
+    }
+
+    private long journalBytes() throws IOException {
+        return DiskUsageTracker.walk(dataDirectory.resolve("journal")).bytes();
+    }
+
+    /**
+     * Journal records are streamed into {@link #addRecord} and {@link #deleteRecord}; transactions are not
+     * used for the records this tool reads.
+     */
+    private abstract static class RecordCallback implements LoaderCallback {
+
+        @Override
+        public void addPreparedTransaction(PreparedTransactionInfo preparedTransaction) {
+        }
+
+        @Override
+        public void updateRecord(RecordInfo info) {
+        }
+
+        @Override
+        public void failedTransaction(long transactionID, List<RecordInfo> records, List<RecordInfo> recordsToDelete) {
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish-to-deliver latency histograms for one node, split by consumer protocol and by whether
+ * the message was published on this node or forwarded over the cluster bridge.
+ * <p>
+ * Publishers stamp each message with {@link #SENT_AT} (epoch microseconds) and {@link #ORIGIN} (broker name),
+ * both as Core message properties and as fields of the JSON body. Consumers record into HdrHistogram
+ * {@link Recorder}s, which are drained and logged as p50/p99/p999/max at a fixed interval.
+ */
+@Slf4j
+public class LatencyHistograms {
+
+    public static final String SENT_AT = "sentAt";
+    public static final String ORIGIN = "origin";
+
+    private static final byte[] SENT_AT_FIELD = ("\"" + SENT_AT + "\": ").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ORIGIN_FIELD = ("\"" + ORIGIN + "\": \"").getBytes(StandardCharsets.US_ASCII);
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    public enum Protocol {
+        CORE, MQTT
+    }
+
+    public enum Route {
+        LOCAL, BRIDGED
+    }
+
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+    private final byte[] brokerNameBytes;
+    private final Map<Protocol, Map<Route, Recorder>> recorders = new EnumMap<>(Protocol.class);
+    private final Map<Protocol, Map<Route, Histogram>> intervals = new EnumMap<>(Protocol.class);
+    private ScheduledExecutorService reporter;
+
+    public LatencyHistograms(AmqProperties amqProperties, ReproProperties reproProperties) {
+        this.amqProperties = amqProperties;
+        this.reproProperties = reproProperties;
+        this.brokerNameBytes = amqProperties.getBrokerName().getBytes(StandardCharsets.UTF_8);
+        for (Protocol protocol : Protocol.values()) {
+            Map<Route, Recorder> byRoute = new EnumMap<>(Route.class);
+            Map<Route, Histogram> intervalByRoute = new EnumMap<>(Route.class);
+            for (Route route : Route.values()) {
+                byRoute.put(route, new Recorder(MAX_LATENCY_MICROS, 3));
+                intervalByRoute.put(route, null);
+            }
+            recorders.put(protocol, byRoute);
+            intervals.put(protocol, intervalByRoute);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "latency-report");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = reproProperties.getLatencyReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        reporter.shutdownNow();
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    /**
+     * Records the latency of a Core message from its {@link #SENT_AT} and {@link #ORIGIN} properties.
+     *
+     * @return the recorded latency in microseconds
+     */
+    public long record(Protocol protocol, long sentAtMicros, String origin) {
+        Route route = amqProperties.getBrokerName().equals(origin) ? Route.LOCAL : Route.BRIDGED;
+        return record(protocol, route, sentAtMicros);
+    }
+
+    /**
+     * Records the latency of a message from the stamp fields of its JSON body; unstamped bodies are ignored.
+     *
+     * @return the recorded latency in microseconds, or -1 if the body is not stamped
+     */
+    public long record(Protocol protocol, byte[] body) {
+        int sentAt = indexOf(body, SENT_AT_FIELD);
+        if (sentAt < 0) {
+            return -1;
+        }
+        long sentAtMicros = 0;
+        for (int i = sentAt + SENT_AT_FIELD.length; i < body.length && body[i] >= '0' && body[i] <= '9'; i++) {
+            sentAtMicros = sentAtMicros * 10 + (body[i] - '0');
+        }
+        int origin = indexOf(body, ORIGIN_FIELD);
+        Route route = origin >= 0 && regionMatches(body, origin + ORIGIN_FIELD.length, brokerNameBytes) ? Route.LOCAL : Route.BRIDGED;
+        return record(protocol, route, sentAtMicros);
+    }
+
+    private long record(Protocol protocol, Route route, long sentAtMicros) {
+        long latency = Math.max(0, Math.min(nowMicros() - sentAtMicros, MAX_LATENCY_MICROS));
+        recorders.get(protocol).get(route).recordValue(latency);
+        return latency;
+    }
+
+    private synchronized void report() {
+        try {
+            StringBuilder b = new StringBuilder();
+            b.append(String.format("%n===== %s latency (µs) =====%n", amqProperties.getBrokerName()));
+            b.append(String.format("%-13s %9s %9s %9s %9s %9s%n", "", "count", "p50", "p99", "p999", "max"));
+            for (Protocol protocol : Protocol.values()) {
+                for (Route route : Route.values()) {
+                    Histogram histogram = recorders.get(protocol).get(route).getIntervalHistogram(intervals.get(protocol).get(route));
+                    intervals.get(protocol).put(route, histogram);
+                    if (histogram.getTotalCount() == 0) {
+                        continue;
+                    }
+                    b.append(String.format("%-13s %9d %9d %9d %9d %9d%n", protocol + "/" + route,
+                        histogram.getTotalCount(),
+                        histogram.getValueAtPercentile(50),
+                        histogram.getValueAtPercentile(99),
+                        histogram.getValueAtPercentile(99.9),
+                        histogram.getMaxValue()));
+                }
+            }
+            b.append("==========================");
+            log.info(b.toString());
+        } catch (Exception e) {
+            log.error("Error reporting latency histograms", e);
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        outer:
+        for (int i = 0; i <= data.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (data[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] data, int offset, byte[] expected) {
+        if (offset + expected.length >= data.length || data[offset + expected.length] != '"') {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (data[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps a bounded ring buffer of {@link ArtemisMonitor} snapshots for one broker and flags counters
+ * that keep growing while publish volume is steady.
+ * <p>
+ * For each counter it computes the overall growth rate and a least-squares slope per minute across the window.
+ * A counter is flagged when the slope exceeds the configured minimum, the fit is close to linear
+ * and the broker's message-added rate stayed steady over the same samples.
+ */
+@Slf4j
+public class LeakDetector {
+
+    public record CounterTrend(
+        String counter,
+        long latest,
+        double growthPerMinute,
+        double slopePerMinute,
+        double rSquared,
+        boolean flagged
+    ) {
+    }
+
+    private record Counter(String name, ToLongFunction<BrokerSnapshot> value) {
+    }
+
+    private final ArtemisMonitor monitor;
+    private final AmqProperties amqProperties;
+    private final ReproProperties.LeakDetection settings;
+
+    private final BrokerSnapshot[] samples;
+    private int next;
+    private int size;
+    private List<Counter> counters;
+    private final Set<String> flagged = new HashSet<>();
+    private ScheduledExecutorService scheduler;
+
+    public LeakDetector(ArtemisMonitor monitor, AmqProperties amqProperties, ReproProperties reproProperties) {
+        this.monitor = monitor;
+        this.amqProperties = amqProperties;
+        this.settings = reproProperties.getLeakDetection();
+        this.samples = new BrokerSnapshot[settings.getWindowSize()];
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leak-detector");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = settings.getSampleInterval().toMillis();
+        scheduler.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void sample() {
+        try {
+            record(monitor.snapshot());
+            for (CounterTrend trend : analyze()) {
+                if (trend.flagged() && flagged.add(trend.counter())) {
+                    log.warn("[{}] Possible leak: {} at {} growing {} per minute (slope {}, R² {})",
+                        amqProperties.getBrokerName(), trend.counter(), trend.latest(),
+                        String.format("%.1f", trend.growthPerMinute()),
+                        String.format("%.1f", trend.slopePerMinute()),
+                        String.format("%.2f", trend.rSquared()));
+                } else if (!trend.flagged() && flagged.remove(trend.counter())) {
+                    log.info("[{}] {} no longer growing at {}", amqProperties.getBrokerName(), trend.counter(), trend.latest());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error sampling broker for leak detection", e);
+        }
+    }
+
+    public synchronized void record(BrokerSnapshot snapshot) {
+        if (counters == null) {
+            counters = countersFor(snapshot.prefixes());
+        }
+        samples[next] = snapshot;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /**
+     * Computes a trend for every counter over the samples currently in the window, oldest first.
+     */
+    public synchronized List<CounterTrend> analyze() {
+        List<CounterTrend> trends = new ArrayList<>();
+        if (size < 2) {
+            return trends;
+        }
+        BrokerSnapshot first = sampleAt(0);
+        BrokerSnapshot last = sampleAt(size - 1);
+        double[] minutes = new double[size];
+        for (int i = 0; i < size; i++) {
+            minutes[i] = (sampleAt(i).timestamp() - first.timestamp()) / 60_000.0;
+        }
+        double span = minutes[size - 1];
+        boolean steadyPublishing = isPublishRateSteady(minutes);
+
+        double[] values = new double[size];
+        for (Counter counter : counters) {
+            for (int i = 0; i < size; i++) {
+                values[i] = counter.value().applyAsLong(sampleAt(i));
+            }
+            long latest = counter.value().applyAsLong(last);
+            double growth = span > 0 ? (latest - counter.value().applyAsLong(first)) / span : 0;
+            double[] fit = linearFit(minutes, values);
+            boolean isFlagged = steadyPublishing
+                && size >= settings.getMinSamples()
+                && fit[0] >= settings.getMinSlopePerMinute()
+                && fit[1] >= settings.getMinRSquared();
+            trends.add(new CounterTrend(counter.name(), latest, growth, fit[0], fit[1], isFlagged));
+        }
+        return trends;
+    }
+
+    private BrokerSnapshot sampleAt(int index) {
+        int oldest = size < samples.length ? 0 : next;
+        return samples[(oldest + index) % samples.length];
+    }
+
+    /**
+     * Publish volume is steady when messages were added in the window and the per-interval
+     * message-added rate varies by no more than the configured coefficient of variation.
+     */
+    private boolean isPublishRateSteady(double[] minutes) {
+        int intervals = size - 1;
+        double[] rates = new double[intervals];
+        double sum = 0;
+        for (int i = 0; i < intervals; i++) {
+            double dt = minutes[i + 1] - minutes[i];
+            long added = sampleAt(i + 1).messagesAdded() - sampleAt(i).messagesAdded();
+            rates[i] = dt > 0 ? added / dt : 0;
+            sum += rates[i];
+        }
+        double mean = sum / intervals;
+        if (mean <= 0) {
+            return false;
+        }
+        double variance = 0;
+        for (double rate : rates) {
+            variance += (rate - mean) * (rate - mean);
+        }
+        double stdDev = Math.sqrt(variance / intervals);
+        return stdDev / mean <= settings.getMaxPublishRateVariation();
+    }
+
+    /**
+     * Ordinary least squares fit of {@code y} against {@code x}.
+     *
+     * @return slope and coefficient of determination; R² is 0 for a flat series
+     */
+    static double[] linearFit(double[] x, double[] y) {
+        int n = x.length;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= n;
+        meanY /= n;
+        double sxx = 0;
+        double syy = 0;
+        double sxy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = x[i] - meanX;
+            double dy = y[i] - meanY;
+            sxx += dx * dx;
+            syy += dy * dy;
+            sxy += dx * dy;
+        }
+        if (sxx == 0) {
+            return new double[]{0, 0};
+        }
+        double slope = sxy / sxx;
+        double rSquared = syy == 0 ? 0 : (sxy * sxy) / (sxx * syy);
+        return new double[]{slope, rSquared};
+    }
+
+    private static List<Counter> countersFor(List<String> prefixes) {
+        List<Counter> counters = new ArrayList<>();
+        counters.add(new Counter("addresses", BrokerSnapshot::addressCount));
+        counters.add(new Counter("queues", BrokerSnapshot::queueCount));
+        counters.add(new Counter("duplicate-id-caches", BrokerSnapshot::duplicateIDCacheCount));
+        counters.add(new Counter("paging-stores", BrokerSnapshot::pagingStoreCount));
+        // every snapshot of a monitor has the same prefixes, so the index is resolved once per counter
+        for (int i = 0; i < prefixes.size(); i++) {
+            String prefix = prefixes.get(i);
+            int index = i;
+            counters.add(new Counter("addresses[" + prefix + "]", s -> s.addresses(index)));
+            counters.add(new Counter("queues[" + prefix + "]", s -> s.queues(index)));
+            counters.add(new Counter("duplicate-id-caches[" + prefix + "]", s -> s.duplicateIDCaches(index)));
+            counters.add(new Counter("paging-stores[" + prefix + "]", s -> s.pagingStores(index)));
+        }
+        return counters;
+    }
+}
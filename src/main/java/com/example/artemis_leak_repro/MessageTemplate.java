@@ -0,0 +1,116 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.SimpleString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Builds the JSON message body stamped for {@link LatencyHistograms} without formatting strings.
+ * <p>
+ * The constant parts of the body, including this publisher's origin, are encoded once; numbers are written as ASCII
+ * digits into a reusable scratch array and the body is padded with trailing whitespace to the requested size.
+ * {@link #write} copies the body straight into a Core message buffer, so apart from the message itself nothing is
+ * allocated per message. Instances hold scratch buffers and belong to a single publisher thread.
+ */
+public class MessageTemplate {
+
+    /**
+     * Property names as {@link SimpleString}, so setting them does not encode the name on every message.
+     */
+    public static final SimpleString SENT_AT_PROPERTY = SimpleString.of(LatencyHistograms.SENT_AT);
+    public static final SimpleString ORIGIN_PROPERTY = SimpleString.of(LatencyHistograms.ORIGIN);
+
+    private static final byte[] INDEX = ascii("{\"eventType\": \"test.event\", \"index\": ");
+    private static final byte[] TIMESTAMP = ascii(", \"timestamp\": ");
+    private static final byte[] SENT_AT = ascii("\", \"" + LatencyHistograms.SENT_AT + "\": ");
+    private static final byte SUFFIX = '}';
+    private static final int MAX_DIGITS = 20;
+
+    private final SimpleString origin;
+    // ", "origin": "<origin>
+    private final byte[] originField;
+    private final byte[] digits = new byte[MAX_DIGITS];
+    private final byte[] body;
+    private byte[] padding = new byte[0];
+
+    public MessageTemplate(String origin) {
+        this.origin = SimpleString.of(origin);
+        this.originField = (", \"" + LatencyHistograms.ORIGIN + "\": \"" + origin).getBytes(StandardCharsets.UTF_8);
+        this.body = new byte[INDEX.length + TIMESTAMP.length + originField.length + SENT_AT.length + 3 * (MAX_DIGITS + 1) + 1];
+    }
+
+    /**
+     * This publisher's origin, for the {@link #ORIGIN_PROPERTY} of Core messages.
+     */
+    public SimpleString origin() {
+        return origin;
+    }
+
+    /**
+     * Appends the body for the {@code index}-th message of a batch to {@code buffer}, padded to at least
+     * {@code payloadSize} bytes, and returns the number of bytes written.
+     */
+    public int write(ActiveMQBuffer buffer, int index, long sentAtMicros, int payloadSize) {
+        int length = encode(index, sentAtMicros);
+        buffer.writeBytes(body, 0, length);
+        int pad = payloadSize - length;
+        if (pad <= 0) {
+            return length;
+        }
+        if (padding.length < pad) {
+            padding = new byte[pad];
+            Arrays.fill(padding, (byte) ' ');
+        }
+        buffer.writeBytes(padding, 0, pad);
+        return payloadSize;
+    }
+
+    /**
+     * Returns the body for the {@code index}-th message of a batch as a new array padded to at least
+     * {@code payloadSize} bytes, for clients that keep the array after the send returns.
+     */
+    public byte[] payload(int index, long sentAtMicros, int payloadSize) {
+        int length = encode(index, sentAtMicros);
+        byte[] payload = Arrays.copyOf(body, Math.max(length, payloadSize));
+        Arrays.fill(payload, length, payload.length, (byte) ' ');
+        return payload;
+    }
+
+    private int encode(int index, long sentAtMicros) {
+        int pos = put(INDEX, 0);
+        pos = putLong(index, pos);
+        pos = put(TIMESTAMP, pos);
+        pos = putLong(System.currentTimeMillis(), pos);
+        pos = put(originField, pos);
+        pos = put(SENT_AT, pos);
+        pos = putLong(sentAtMicros, pos);
+        body[pos++] = SUFFIX;
+        return pos;
+    }
+
+    private int put(byte[] bytes, int pos) {
+        System.arraycopy(bytes, 0, body, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    private int putLong(long value, int pos) {
+        if (value < 0) {
+            body[pos++] = '-';
+            value = -value;
+        }
+        int start = MAX_DIGITS;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        int length = MAX_DIGITS - start;
+        System.arraycopy(digits, start, body, pos, length);
+        return pos + length;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
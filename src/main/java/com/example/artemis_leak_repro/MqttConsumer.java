@@ -17,37 +17,88 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Creates MQTT consumers that subscribe to publish/# with shared subscriptions.
  * This simulates EBS consuming events via wildcard subscription.
  * Uses HiveMQ MQTT Client (modern, bug-free alternative to Paho).
+ * <p>
+ * {@code repro.mqtt-consumers} clients join the same shared subscription, assigned round-robin to
+ * {@code repro.mqtt-consumer-ports} (this node's port when empty). Per-member rates and the fairness
+ * of the distribution are logged every {@code repro.consumer-report-interval}.
  */
 @Slf4j
 @RequiredArgsConstructor
 public class MqttConsumer {
 
-    private final List<Mqtt5BlockingClient> consumers = new ArrayList<>();
+    private static final String SUBSCRIPTION_TOPIC = "$share/ebs-group/publish/#";
+
+    private final List<Mqtt5BlockingClient> consumers = new CopyOnWriteArrayList<>();
     private final AtomicInteger messageCount = new AtomicInteger(0);
 
     private final EmbeddedActiveMQ embeddedActiveMQ;
     private final AmqProperties amqProperties;
     private final ReproProperties reproProperties;
+    private final LatencyHistograms latencyHistograms;
+
+    private final List<Member> members = new ArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private long lastReportNanos;
+
+    private record Member(int index, int port, AtomicLong received, long[] lastReported) {
+    }
 
     @PostConstruct
     public void init() throws Exception {
         // Wait for broker to be ready
         waitForBroker();
 
-        log.info("Starting MQTT consumers");
+        List<Integer> ports = reproProperties.getMqttConsumerPorts().isEmpty()
+            ? List.of(amqProperties.getMqttPort())
+            : reproProperties.getMqttConsumerPorts();
+        int poolSize = reproProperties.getMqttConsumers();
+        log.info("Starting {} MQTT consumers on ports {}", poolSize, ports);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mqtt-consumer-pool");
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (int i = 0; i < poolSize; i++) {
+            Member member = new Member(i, ports.get(i % ports.size()), new AtomicLong(), new long[1]);
+            members.add(member);
+            if (member.port() == amqProperties.getMqttPort()) {
+                createConsumer(member);
+            } else {
+                // other nodes may still be starting, keep trying in the background
+                scheduler.execute(() -> connectRemote(member));
+            }
+        }
 
-        createConsumer();
+        lastReportNanos = System.nanoTime();
+        long interval = reproProperties.getConsumerReportInterval().toMillis();
+        scheduler.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.MILLISECONDS);
 
         log.info("MQTT consumer started successfully");
     }
 
-    private void createConsumer() throws Exception {
+    private void connectRemote(Member member) {
+        try {
+            createConsumer(member);
+        } catch (Exception e) {
+            log.info("Consumer {} could not connect to port {} yet, retrying", member.index(), member.port());
+            scheduler.schedule(() -> connectRemote(member), 2, TimeUnit.SECONDS);
+        }
+    }
+
+    private void createConsumer(Member member) {
         String clientId = "consumer-" + UUID.randomUUID();
 
         // Create HiveMQ MQTT 5 async client for callback support
@@ -55,11 +106,11 @@ public class MqttConsumer {
                 .useMqttVersion5()
                 .identifier(clientId)
                 .serverHost(amqProperties.getHost())
-                .serverPort(amqProperties.getMqttPort())
+                .serverPort(member.port())
                 .buildAsync();
 
         // Connect with clean start (temporary session)
-        log.info("Consumer connecting to broker...");
+        log.info("Consumer {} connecting to broker on port {}...", member.index(), member.port());
         client.connectWith()
                 .cleanStart(true)
                 .send()
@@ -72,28 +123,38 @@ public class MqttConsumer {
                 })
                 .join(); // Wait for connection
 
-        // Subscribe to wildcard with or without shared subscription
-        String subscriptionTopic = "$share/ebs-group/publish/#";
-
         // Subscribe and set up message callback
         // QoS 1 (AT_LEAST_ONCE) matches production EBS configuration
-        log.info("Consumer subscribing to: {}", subscriptionTopic);
+        log.info("Consumer subscribing to: {}", SUBSCRIPTION_TOPIC);
 
         client.subscribeWith()
-                .topicFilter(subscriptionTopic)
+                .topicFilter(SUBSCRIPTION_TOPIC)
                 .qos(com.hivemq.client.mqtt.datatypes.MqttQos.AT_LEAST_ONCE) // QoS 1
                 .callback(publish -> {
+                    ConsumeEvent event = new ConsumeEvent();
+                    event.begin();
+                    byte[] payload = publish.getPayloadAsBytes();
+                    long latency = latencyHistograms.record(LatencyHistograms.Protocol.MQTT, payload);
+                    member.received().incrementAndGet();
                     int count = messageCount.incrementAndGet();
                     if ((count % reproProperties.getAddressCount()) == 0) {
                         log.info("[MQTT Consumer] Received {} messages", count);
                     }
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.broker = amqProperties.getBrokerName();
+                        event.protocol = "MQTT";
+                        event.bytes = payload.length;
+                        event.latency = latency;
+                        event.commit();
+                    }
                 })
                 .send()
                 .whenComplete((subAck, throwable) -> {
                     if (throwable != null) {
                         log.error("Consumer subscription FAILED: {}", throwable.getMessage());
                     } else {
-                        log.info("Consumer subscription CONFIRMED for: {}", subscriptionTopic);
+                        log.info("Consumer subscription CONFIRMED for: {}", SUBSCRIPTION_TOPIC);
                     }
                 })
                 .join(); // Wait for subscription
@@ -103,6 +164,38 @@ public class MqttConsumer {
         log.info("Consumer setup complete");
     }
 
+    /**
+     * Logs per-member message rates for the last interval with Jain's fairness index
+     * (1.0 when every member received the same share, 1/n when one member received everything).
+     */
+    private void report() {
+        long now = System.nanoTime();
+        double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+        lastReportNanos = now;
+        StringBuilder b = new StringBuilder();
+        double sum = 0;
+        double sumOfSquares = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (Member member : members) {
+            long current = member.received().get();
+            double rate = (current - member.lastReported()[0]) / seconds;
+            member.lastReported()[0] = current;
+            sum += rate;
+            sumOfSquares += rate * rate;
+            min = Math.min(min, rate);
+            max = Math.max(max, rate);
+            b.append(String.format("%n  consumer-%-3d port %5d %10.0f msg/s", member.index(), member.port(), rate));
+        }
+        if (sum == 0) {
+            return;
+        }
+        double fairness = (sum * sum) / (members.size() * sumOfSquares);
+        log.info("[MQTT Consumer] {} members: {} msg/s total, fairness {}, min/max {}{}",
+            members.size(), String.format("%.0f", sum), String.format("%.3f", fairness),
+            String.format("%.2f", max > 0 ? min / max : 0), b);
+    }
+
     private void waitForBroker() throws InterruptedException {
         // Wait for broker to be fully started
         int retries = 30;
@@ -120,6 +213,9 @@ public class MqttConsumer {
 
     @PreDestroy
     public void cleanup() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
         log.info("Disconnecting {} MQTT consumers...", consumers.size());
         for (int i = 0; i < consumers.size(); i++) {
             Mqtt5BlockingClient client = consumers.get(i);
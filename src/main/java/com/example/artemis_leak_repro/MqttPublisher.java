@@ -0,0 +1,125 @@
+package com.example.artemis_leak_repro;
+
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import com.hivemq.client.mqtt.mqtt5.Mqtt5AsyncClient;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes messages over MQTT 5 with QoS 1, the ingest path used by production devices.
+ * Publishes are pipelined: up to {@code amq.mqtt-receive-maximum} are in flight at once,
+ * and a batch completes when every PUBACK has arrived.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MqttPublisher implements Publisher {
+
+    private final EmbeddedActiveMQ embeddedActiveMQ;
+    private final Diagnostics diagnostics;
+    private final Workload workload;
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+
+    private Mqtt5AsyncClient client;
+    private MessageTemplate template;
+
+    @PostConstruct
+    @Override
+    public void init() {
+        this.template = new MessageTemplate(amqProperties.getBrokerName());
+        this.client = MqttClient.builder()
+                .useMqttVersion5()
+                .identifier("publisher-" + UUID.randomUUID())
+                .serverHost(amqProperties.getHost())
+                .serverPort(amqProperties.getMqttPort())
+                .buildAsync();
+
+        client.connectWith()
+                .cleanStart(true)
+                .restrictions()
+                    .sendMaximum(amqProperties.getMqttReceiveMaximum())
+                    .applyRestrictions()
+                .send()
+                .join();
+        log.info("MQTT Publisher initialized (receiveMaximum={})", amqProperties.getMqttReceiveMaximum());
+    }
+
+    @Override
+    public void publishToMultipleAddresses() {
+        diagnostics.logDiagnostics();
+        int published = publishBatch();
+        log.info("[MQTT Publisher] Finished publishing to {} addresses", published);
+    }
+
+    @Override
+    public int publishBatch() {
+        int addressCount = reproProperties.getAddressCount();
+        CompletableFuture<?>[] acks = new CompletableFuture<?>[addressCount];
+        AtomicInteger failed = new AtomicInteger();
+        PublishBatchEvent event = new PublishBatchEvent();
+        event.begin();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < addressCount; i++) {
+            workload.awaitSendTime(start, i);
+            String address = workload.nextAddress(i);
+            byte[] payload = template.payload(i, LatencyHistograms.nowMicros(), workload.nextPayloadSize());
+            bytes += payload.length;
+            // the client queues publishes beyond the send maximum until earlier ones are acknowledged
+            acks[i] = client.publishWith()
+                    .topic(address)
+                    .qos(MqttQos.AT_LEAST_ONCE)
+                    .payload(payload)
+                    .send()
+                    .thenAccept((Mqtt5PublishResult result) -> result.getError().ifPresent(e -> {
+                        if (failed.incrementAndGet() == 1) {
+                            log.error("[MQTT Publisher] Publish to {} failed", address, e);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(acks).join();
+        event.end();
+        if (event.shouldCommit()) {
+            event.broker = amqProperties.getBrokerName();
+            event.protocol = "MQTT";
+            event.addressCount = addressCount;
+            event.bytes = bytes;
+            event.durable = true;
+            event.commit();
+        }
+        if (failed.get() > 0) {
+            log.warn("[MQTT Publisher] {} publishes failed in batch", failed.get());
+        }
+        return addressCount;
+    }
+
+    @Override
+    public void publish(int index, long sentAtMicros) {
+        String address = workload.nextAddress(index);
+        client.publishWith()
+                .topic(address)
+                .qos(MqttQos.AT_LEAST_ONCE)
+                .payload(template.payload(index, sentAtMicros, workload.nextPayloadSize()))
+                .send()
+                .thenAccept((Mqtt5PublishResult result) -> result.getError().ifPresent(e ->
+                        log.debug("[MQTT Publisher] Publish to {} failed", address, e)));
+    }
+
+    @PreDestroy
+    @Override
+    public void cleanup() {
+        if (client != null && client.getState().isConnected()) {
+            client.disconnect().join();
+        }
+        log.info("MQTT Publisher shutdown");
+    }
+}
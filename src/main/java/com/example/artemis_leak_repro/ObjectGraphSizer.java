@@ -0,0 +1,184 @@
+package com.example.artemis_leak_repro;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the heap retained by an object graph by walking it reflectively.
+ * <p>
+ * Shallow sizes are computed from field layout assuming a 12-byte header, compressed references
+ * and 8-byte alignment, which matches a HotSpot heap below 32 GB. Application and library objects are
+ * traversed field by field; JDK maps, collections and arrays are traversed through their public API
+ * with a fixed per-entry overhead, and other JDK objects count their shallow size only.
+ * The walk stops at instances of the given boundary types, so shared broker services reachable
+ * from a structure are not charged to it.
+ */
+class ObjectGraphSizer {
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAP_ENTRY = 32;
+    private static final int MAX_OBJECTS = 100_000;
+
+    private final List<Class<?>> boundaries;
+    private final Map<Class<?>, Long> shallowSizes = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Field>> referenceFields = new ConcurrentHashMap<>();
+
+    ObjectGraphSizer(List<Class<?>> boundaries) {
+        this.boundaries = List.copyOf(boundaries);
+    }
+
+    /**
+     * Estimated bytes reachable from {@code roots}, counting each object once.
+     */
+    long sizeOf(Object... roots) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> rootSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        for (Object root : roots) {
+            if (root != null) {
+                rootSet.add(root);
+                pending.push(root);
+            }
+        }
+        long total = 0;
+        while (!pending.isEmpty() && visited.size() < MAX_OBJECTS) {
+            Object current = pending.pop();
+            // roots are sized even when they are boundary types themselves
+            if (!visited.add(current) || (!rootSet.contains(current) && isBoundary(current))) {
+                continue;
+            }
+            Class<?> type = current.getClass();
+            if (type.isArray()) {
+                total += arraySize(current, pending);
+            } else if (current instanceof Map<?, ?> map && isJdk(type)) {
+                total += shallowSize(type) + tableSize(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    total += MAP_ENTRY;
+                    push(pending, entry.getKey());
+                    push(pending, entry.getValue());
+                }
+            } else if (current instanceof Collection<?> collection && isJdk(type)) {
+                total += shallowSize(type) + tableSize(collection.size());
+                for (Object element : collection) {
+                    push(pending, element);
+                }
+            } else if (current instanceof String string) {
+                total += shallowSize(type) + align(ARRAY_HEADER + string.length());
+            } else {
+                total += shallowSize(type);
+                if (!isJdk(type)) {
+                    for (Field field : referenceFields(type)) {
+                        try {
+                            push(pending, field.get(current));
+                        } catch (IllegalAccessException | RuntimeException e) {
+                            // not readable, count what we have
+                        }
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    private long arraySize(Object array, Deque<Object> pending) {
+        int length = Array.getLength(array);
+        Class<?> component = array.getClass().getComponentType();
+        if (component.isPrimitive()) {
+            return align(ARRAY_HEADER + (long) length * primitiveSize(component));
+        }
+        for (Object element : (Object[]) array) {
+            push(pending, element);
+        }
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    private static void push(Deque<Object> pending, Object value) {
+        if (value != null && !(value instanceof Class<?>)) {
+            pending.push(value);
+        }
+    }
+
+    private boolean isBoundary(Object value) {
+        for (Class<?> boundary : boundaries) {
+            if (boundary.isInstance(value)) {
+                return true;
+            }
+        }
+        return value instanceof Thread || value instanceof ClassLoader;
+    }
+
+    private static boolean isJdk(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+    }
+
+    /**
+     * Backing array for a collection of {@code size} elements, sized like a hash table at the default load factor.
+     */
+    private static long tableSize(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+        return align(ARRAY_HEADER + (long) capacity * REFERENCE);
+    }
+
+    private long shallowSize(Class<?> type) {
+        return shallowSizes.computeIfAbsent(type, t -> {
+            long size = HEADER;
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += field.getType().isPrimitive() ? primitiveSize(field.getType()) : REFERENCE;
+                    }
+                }
+            }
+            return align(size);
+        });
+    }
+
+    private List<Field> referenceFields(Class<?> type) {
+        return referenceFields.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && !isJdk(c); c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // module encapsulation, skip the field
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offers load at a target rate regardless of how fast the broker accepts it.
+ * <p>
+ * The scheduled publisher is closed-loop: it waits for a batch before sleeping, so a slow broker also lowers the
+ * offered load and the latency histograms only see the messages it let through (coordinated omission). This publisher
+ * instead computes an intended send time for every message from the rate profile in {@code repro.open-loop.*} and
+ * sends each one as soon as it is due. Messages are stamped with their intended time, so time spent queued behind
+ * slow sends shows up as latency. A send more than {@code miss-tolerance} late counts as a missed schedule, and the
+ * backlog is the number of messages already due but not yet sent. Each report logs the offered rate next to the
+ * achieved one; the highest offered rate with no missed schedules is logged when the run ends.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OpenLoopPublisher {
+
+    // with a zero offered rate, wake up this often to pick up the next phase of the profile
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Publisher publisher;
+    private final Diagnostics diagnostics;
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+    private final AtomicLong maxBacklog = new AtomicLong();
+    private final AtomicLong maxLateNanos = new AtomicLong();
+    private volatile long backlog;
+    private volatile double offeredRate;
+    private volatile boolean running;
+    private Thread sender;
+    private ScheduledExecutorService reporter;
+
+    private long lastSent;
+    private long lastMissed;
+    private long lastReportNanos;
+    private double sustainedRate;
+
+    public void start() {
+        ReproProperties.OpenLoop settings = reproProperties.getOpenLoop();
+        running = true;
+        lastReportNanos = System.nanoTime();
+        // a platform thread parks with less jitter than a virtual one
+        sender = Thread.ofPlatform().name("open-loop-publisher").daemon().start(() -> run(settings));
+
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "open-loop-report");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = settings.getReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("[{}] Started open-loop publisher: {} ramp, {} -> {} msg/s",
+            amqProperties.getBrokerName(), settings.getRamp(), settings.getStartRate(), settings.getRate());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        if (sender != null) {
+            sender.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void run(ReproProperties.OpenLoop settings) {
+        int addressCount = reproProperties.getAddressCount();
+        long tolerance = settings.getMissTolerance().toNanos();
+        long start = System.nanoTime();
+        long end = settings.getDuration().isZero() ? Long.MAX_VALUE : start + settings.getDuration().toNanos();
+        double intended = start;
+        long sequence = 0;
+        try {
+            while (running && intended < end) {
+                long due = (long) intended;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                double rate = rateAt(settings, due - start);
+                offeredRate = rate;
+                if (rate <= 0) {
+                    intended += IDLE_NANOS;
+                    continue;
+                }
+                long late = -wait;
+                if (late > tolerance) {
+                    missed.incrementAndGet();
+                }
+                long queued = (long) (late * rate / 1_000_000_000.0);
+                backlog = queued;
+                maxBacklog.accumulateAndGet(queued, Math::max);
+                maxLateNanos.accumulateAndGet(late, Math::max);
+                // stamped with the intended send time, so waiting behind slow sends counts as latency
+                publisher.publish((int) (sequence++ % addressCount), LatencyHistograms.nowMicros() - late / 1_000);
+                sent.incrementAndGet();
+                intended += 1_000_000_000.0 / rate;
+            }
+        } catch (Exception e) {
+            log.error("[{}] Open-loop publisher failed", amqProperties.getBrokerName(), e);
+        } finally {
+            running = false;
+            report();
+            log.info("[{}] [Open Loop] Finished: {} sent, {} missed schedules, highest offered rate without misses {} msg/s",
+                amqProperties.getBrokerName(), sent.get(), missed.get(), String.format("%.0f", sustainedRate));
+        }
+    }
+
+    /**
+     * Offered rate in messages/s {@code elapsedNanos} into the run.
+     */
+    static double rateAt(ReproProperties.OpenLoop settings, long elapsedNanos) {
+        return switch (settings.getRamp()) {
+            case STEP -> {
+                long steps = elapsedNanos / Math.max(1, settings.getStepDuration().toNanos());
+                yield Math.min(settings.getRate(), settings.getStartRate() + steps * settings.getStepRate());
+            }
+            case LINEAR -> {
+                long ramp = settings.getRampDuration().toNanos();
+                yield elapsedNanos >= ramp
+                    ? settings.getRate()
+                    : settings.getStartRate() + (settings.getRate() - settings.getStartRate()) * elapsedNanos / ramp;
+            }
+            case BURST -> elapsedNanos % Math.max(1, settings.getBurstInterval().toNanos())
+                < settings.getBurstDuration().toNanos() ? settings.getRate() : settings.getStartRate();
+        };
+    }
+
+    private synchronized void report() {
+        try {
+            diagnostics.logDiagnostics();
+            long now = System.nanoTime();
+            double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+            lastReportNanos = now;
+            long sentNow = sent.get();
+            long missedNow = missed.get();
+            long sentDelta = sentNow - lastSent;
+            long missedDelta = missedNow - lastMissed;
+            lastSent = sentNow;
+            lastMissed = missedNow;
+            double rate = offeredRate;
+            if (sentDelta > 0 && missedDelta == 0) {
+                sustainedRate = Math.max(sustainedRate, rate);
+            }
+            log.info("[{}] [Open Loop] offered {} msg/s, sent {} msg/s, missed {} of {} ({}%), backlog {} (max {}), max lag {} ms",
+                amqProperties.getBrokerName(), String.format("%.0f", rate), String.format("%.0f", sentDelta / seconds),
+                missedDelta, sentDelta, String.format("%.1f", sentDelta == 0 ? 0 : 100.0 * missedDelta / sentDelta),
+                backlog, maxBacklog.getAndSet(0), TimeUnit.NANOSECONDS.toMillis(maxLateNanos.getAndSet(0)));
+        } catch (Exception e) {
+            log.error("Error reporting open-loop publisher", e);
+        }
+    }
+}
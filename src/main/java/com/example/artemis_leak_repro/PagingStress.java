@@ -0,0 +1,196 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forces many addresses to page at once and measures the paging I/O.
+ * <p>
+ * Creates {@code repro.paging.address-count} {@code paging/} addresses with one durable queue each and no consumers,
+ * and sends {@code messages-per-address} messages of {@code payload-size} bytes to each. Once global or per-address
+ * memory is exhausted the stores page; page write throughput, page file count, the number of stores paging and the
+ * retained heap per {@link PagingStore} are logged. Consumers are then attached to every queue and the time each
+ * store takes to leave paging mode (depage latency) and the page read throughput are logged. The queues are deleted
+ * afterwards so the paging data does not survive a restart.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PagingStress {
+
+    private static final String ADDRESS_PREFIX = "paging/";
+    private static final long POLL_MILLIS = 10;
+    // measured once after the fill, so the estimate runs here even when diagnostics have it turned off
+    private static final int DEFAULT_HEAP_SAMPLE_SIZE = 16;
+
+    private final EmbeddedActiveMQ embeddedActiveMQ;
+    private final ArtemisMonitor monitor;
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+
+    private volatile boolean running;
+
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("paging-stress").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    private void run() {
+        ReproProperties.Paging settings = reproProperties.getPaging();
+        String brokerUrl = String.format("tcp://%s:%d", amqProperties.getHost(), amqProperties.getCorePort());
+        List<SimpleString> addresses = new ArrayList<>();
+        for (int i = 0; i < settings.getAddressCount(); i++) {
+            addresses.add(SimpleString.of(ADDRESS_PREFIX + i));
+        }
+        try (ServerLocator locator = ActiveMQClient.createServerLocator(brokerUrl);
+             ClientSessionFactory factory = locator.createSessionFactory();
+             ClientSession session = factory.createSession()) {
+            for (SimpleString address : addresses) {
+                session.createQueue(QueueConfiguration.of(address).setRoutingType(RoutingType.ANYCAST).setDurable(true));
+            }
+            try {
+                List<PagingStore> paged = fill(session, addresses, settings);
+                if (running) {
+                    drain(factory, addresses, paged, settings);
+                }
+            } finally {
+                for (SimpleString address : addresses) {
+                    session.deleteQueue(address);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Paging stress failed", e);
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Sends to every address round-robin with no consumers attached and returns the stores that ended up paging.
+     */
+    private List<PagingStore> fill(ClientSession session, List<SimpleString> addresses, ReproProperties.Paging settings)
+        throws Exception {
+        byte[] payload = new byte[settings.getPayloadSize()];
+        long bytesBefore = pagingDirectory().bytes();
+        long start = System.nanoTime();
+        try (ClientProducer producer = session.createProducer()) {
+            for (int round = 0; round < settings.getMessagesPerAddress() && running; round++) {
+                for (SimpleString address : addresses) {
+                    ClientMessage message = session.createMessage(true);
+                    message.getBodyBuffer().writeBytes(payload);
+                    producer.send(address, message);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        PagingManager pagingManager = embeddedActiveMQ.getActiveMQServer().getPagingManager();
+        List<PagingStore> paged = new ArrayList<>();
+        long pages = 0;
+        for (SimpleString address : addresses) {
+            PagingStore store = pagingManager.getPageStore(address);
+            if (store.isPaging()) {
+                paged.add(store);
+                pages += store.getNumberOfPages();
+            }
+        }
+        DiskUsageTracker.DiskUsage usage = pagingDirectory();
+        long written = usage.bytes() - bytesBefore;
+        int sampleSize = reproProperties.getHeapSampleSize() > 0 ? reproProperties.getHeapSampleSize() : DEFAULT_HEAP_SAMPLE_SIZE;
+        HeapEstimate.Structure stores = monitor.estimatePagingStoreHeap(ADDRESS_PREFIX, sampleSize);
+        log.info("[{}] Paging fill: {}/{} stores paging, {} pages ({} page files, {} MB on disk), "
+                + "page writes {} MB/s, {} bytes retained per PagingStore",
+            amqProperties.getBrokerName(), paged.size(), addresses.size(), pages, usage.files(),
+            usage.bytes() / (1024 * 1024), String.format("%.1f", written / (1024.0 * 1024.0) / seconds),
+            stores.bytesPerEntry());
+        return paged;
+    }
+
+    /**
+     * Attaches a consumer to every queue and waits until the paged stores have left paging mode and every
+     * message has been consumed.
+     */
+    private void drain(ClientSessionFactory factory, List<SimpleString> addresses, List<PagingStore> paged,
+                       ReproProperties.Paging settings) throws Exception {
+        long expected = (long) addresses.size() * settings.getMessagesPerAddress();
+        long pagedBytes = pagingDirectory().bytes();
+        AtomicLong consumed = new AtomicLong();
+        Histogram depage = new Histogram(settings.getDrainTimeout().toMillis(), 3);
+        Set<PagingStore> stillPaging = new HashSet<>(paged);
+
+        try (ClientSession session = factory.createSession(false, true, true)) {
+            List<ClientConsumer> consumers = new ArrayList<>();
+            for (SimpleString address : addresses) {
+                ClientConsumer consumer = session.createConsumer(address);
+                consumer.setMessageHandler(message -> {
+                    try {
+                        message.acknowledge();
+                        consumed.incrementAndGet();
+                    } catch (Exception e) {
+                        log.error("Error acknowledging paged message", e);
+                    }
+                });
+                consumers.add(consumer);
+            }
+            long start = System.nanoTime();
+            session.start();
+            long deadline = start + settings.getDrainTimeout().toNanos();
+            while (running && System.nanoTime() < deadline && (consumed.get() < expected || !stillPaging.isEmpty())) {
+                Thread.sleep(POLL_MILLIS);
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                stillPaging.removeIf(store -> {
+                    if (store.isPaging()) {
+                        return false;
+                    }
+                    depage.recordValue(Math.min(elapsedMillis, depage.getHighestTrackableValue()));
+                    return true;
+                });
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            for (ClientConsumer consumer : consumers) {
+                consumer.close();
+            }
+            log.info("[{}] Paging drain: {}/{} messages in {} s, page reads {} MB/s, "
+                    + "depage ms p50={} p99={} max={} ({} stores, {} still paging)",
+                amqProperties.getBrokerName(), consumed.get(), expected, String.format("%.1f", seconds),
+                String.format("%.1f", pagedBytes / (1024.0 * 1024.0) / seconds),
+                depage.getValueAtPercentile(50), depage.getValueAtPercentile(99), depage.getMaxValue(),
+                depage.getTotalCount(), stillPaging.size());
+        }
+    }
+
+    /**
+     * Walks the paging directory directly; the {@link DiskUsageTracker} totals lag behind bursts of page writes.
+     */
+    private DiskUsageTracker.DiskUsage pagingDirectory() throws IOException {
+        return DiskUsageTracker.walk(Paths.get(amqProperties.getDataDirectory(), DiskUsageTracker.Area.PAGING.getDirectory()));
+    }
+}
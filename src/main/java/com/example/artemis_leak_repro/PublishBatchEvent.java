@@ -0,0 +1,33 @@
+package com.example.artemis_leak_repro;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one {@link Publisher#publishBatch()}.
+ */
+@Name("com.example.artemis_leak_repro.PublishBatch")
+@Label("Publish Batch")
+@Category({"Artemis Repro", "Publisher"})
+@Description("One batch of messages sent to publish/ addresses")
+class PublishBatchEvent extends jdk.jfr.Event {
+
+    @Label("Broker")
+    String broker;
+
+    @Label("Protocol")
+    String protocol;
+
+    @Label("Address Count")
+    int addressCount;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Durable")
+    boolean durable;
+}
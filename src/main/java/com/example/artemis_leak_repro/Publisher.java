@@ -0,0 +1,30 @@
+package com.example.artemis_leak_repro;
+
+/**
+ * Publishes batches of messages to {@code publish/*} addresses. Selected by {@code repro.publisher}.
+ */
+public interface Publisher {
+
+    void init() throws Exception;
+
+    /**
+     * Logs diagnostics and publishes one batch. Invoked by the scheduled publisher thread.
+     */
+    void publishToMultipleAddresses();
+
+    /**
+     * Publishes one message to each of {@code addressCount} addresses without logging diagnostics.
+     *
+     * @return number of messages sent
+     */
+    int publishBatch();
+
+    /**
+     * Publishes the {@code index}-th message of a batch without waiting for the broker beyond what the send mode
+     * requires. Used by {@link OpenLoopPublisher}, which stamps each message with its intended send time rather
+     * than the time it actually went out.
+     */
+    void publish(int index, long sentAtMicros);
+
+    void cleanup();
+}
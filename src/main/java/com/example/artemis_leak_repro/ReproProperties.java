@@ -4,6 +4,12 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration properties for memory leak reproduction scenario.
  * Maps to {@code repro.*} properties in application.yaml
@@ -28,5 +34,609 @@ public class ReproProperties {
      */
     private boolean coreConsumerEnabled = false;
 
-}
+    /**
+     * Number of MQTT clients sharing the {@code $share/ebs-group/publish/#} subscription on each node.
+     * Default: 1
+     */
+    private int mqttConsumers = 1;
+
+    /**
+     * MQTT ports that shared-subscription clients connect to, assigned round-robin.
+     * List both nodes' ports to spread the group across the cluster.
+     * Default: [] (this node's {@code amq.mqtt-port})
+     */
+    private List<Integer> mqttConsumerPorts = new ArrayList<>();
+
+    /**
+     * Interval at which consumers report per-member message rates.
+     * Default: 10s
+     */
+    private Duration consumerReportInterval = Duration.ofSeconds(10);
+
+    /**
+     * Start publishing automatically once the application is ready.
+     * Disabled by the soak test, which drives the publishers itself.
+     * Default: true
+     */
+    private boolean scheduledPublishing = true;
+
+    /**
+     * Protocol used to publish messages.
+     * {@code core} uses {@link CoreProtocolPublisher}, {@code mqtt} uses {@link MqttPublisher},
+     * {@code jms} uses {@link JmsPublisher}.
+     * Default: core
+     */
+    private PublisherType publisher = PublisherType.CORE;
+
+    /**
+     * Send messages as durable.
+     * Durable sends are persisted to the journal and block until the broker confirms them.
+     * Default: true
+     */
+    private boolean durable = true;
+
+    /**
+     * Minimum length of each JSON message body in characters.
+     * The payload is padded with trailing whitespace up to this length; smaller values leave it unpadded.
+     * Default: 0
+     */
+    private int payloadSize = 0;
+
+    /**
+     * Publish through a single anonymous producer with asynchronous, confirmed sends.
+     * When false, a producer is created and closed per message and durable sends block.
+     * Default: false
+     */
+    private boolean asyncSend = false;
+
+    /**
+     * Confirmation window size in bytes used when {@code asyncSend} is enabled.
+     * Send acknowledgements are batched by the broker until this many bytes have been received.
+     * Must be positive with the Core publisher, which waits for the acknowledgements of each batch.
+     * Default: 1048576 (1 MB)
+     */
+    private int confirmationWindowSize = 1024 * 1024;
+
+    /**
+     * Number of concurrent publishers, each running on its own virtual thread with its own session.
+     * Each publisher publishes batches of {@code addressCount} messages back to back.
+     * When 0, a single publisher publishes one batch every 10 seconds.
+     * Default: 0
+     */
+    private int concurrentPublishers = 0;
+
+    /**
+     * Interval at which concurrent publishers report aggregate and per-publisher throughput.
+     * Default: 10s
+     */
+    private Duration concurrentReportInterval = Duration.ofSeconds(10);
+
+    /**
+     * Name prefixes counted separately by {@link ArtemisMonitor} for addresses, queues,
+     * duplicate-ID caches and paging stores.
+     * Diagnostics report the {@code publish/} and {@code BRIDGE} buckets.
+     * Default: [publish/, BRIDGE]
+     */
+    private List<String> monitorPrefixes = new ArrayList<>(List.of("publish/", "BRIDGE"));
+
+    /**
+     * Entries sampled from each of the duplicate-ID caches, paging stores and address map to estimate
+     * their retained heap in diagnostics. 0 disables heap estimation.
+     * Diagnostics run before every scheduled batch, so the object-graph walk lands in the publish path; 16 is a
+     * reasonable value when the heap numbers matter more than undisturbed latency.
+     * Default: 0
+     */
+    private int heapSampleSize = 0;
+
+    /**
+     * Emit a periodic JFR event with the {@link ArtemisMonitor} counters of this broker while a recording runs.
+     * Publish and consume events are always available and only cost anything when enabled in the recording.
+     * Default: true
+     */
+    private boolean flightRecorderEvents = true;
+
+    /**
+     * Interval between full walks of the data directory by {@link DiskUsageTracker}.
+     * Between walks, totals are kept up to date from file system watch events, except for directories that could not
+     * be watched, which only the walk refreshes.
+     * Default: 1m
+     */
+    private Duration diskUsageReconcileInterval = Duration.ofMinutes(1);
+
+    /**
+     * Interval at which consumers' publish-to-deliver latency histograms are logged and reset.
+     * Default: 10s
+     */
+    private Duration latencyReportInterval = Duration.ofSeconds(10);
+
+    /**
+     * Name of the entry in {@code workloads} that drives address selection, payload sizes and publish rate.
+     * When empty, every message goes to a unique address.
+     * Default: "" (none)
+     */
+    private String workload = "";
+
+    /**
+     * Named workload profiles selectable through {@code workload}.
+     * Maps to {@code repro.workloads.<name>.*}
+     */
+    private Map<String, WorkloadProfile> workloads = new LinkedHashMap<>();
+
+    /**
+     * Settings for {@link LeakDetector}.
+     * Maps to {@code repro.leak-detection.*}
+     */
+    private LeakDetection leakDetection = new LeakDetection();
+
+    /**
+     * Settings for {@link AddressChurnMonitor}.
+     * Maps to {@code repro.churn.*}
+     */
+    private Churn churn = new Churn();
+
+    /**
+     * Settings for {@link StartupProfiler}.
+     * Maps to {@code repro.startup.*}
+     */
+    private Startup startup = new Startup();
+
+    /**
+     * Settings for {@link JmsPublisher}.
+     * Maps to {@code repro.jms.*}
+     */
+    private Jms jms = new Jms();
+
+    /**
+     * Settings for {@link PagingStress}.
+     * Maps to {@code repro.paging.*}
+     */
+    private Paging paging = new Paging();
+
+    /**
+     * Settings for {@link StatsEndpoint}.
+     * Maps to {@code repro.stats.*}
+     */
+    private Stats stats = new Stats();
+
+    /**
+     * Settings for {@link CoreProtocolConsumer}, used when {@code coreConsumerEnabled} is true.
+     * Maps to {@code repro.core-consumer.*}
+     */
+    private CoreConsumer coreConsumer = new CoreConsumer();
+
+    /**
+     * Settings for {@link OpenLoopPublisher}.
+     * Maps to {@code repro.open-loop.*}
+     */
+    private OpenLoop openLoop = new OpenLoop();
+
+    @Data
+    public static class LeakDetection {
+
+        /**
+         * Enable periodic sampling and slope analysis of {@link ArtemisMonitor} counters.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Interval between samples.
+         * Default: 30s
+         */
+        private Duration sampleInterval = Duration.ofSeconds(30);
+
+        /**
+         * Number of samples kept in the ring buffer; the regression window is
+         * {@code windowSize * sampleInterval}.
+         * Default: 40
+         */
+        private int windowSize = 40;
+
+        /**
+         * Minimum number of samples before a counter can be flagged.
+         * Default: 10
+         */
+        private int minSamples = 10;
+
+        /**
+         * Regression slope, in entries per minute, above which a counter is considered growing.
+         * Default: 1.0
+         */
+        private double minSlopePerMinute = 1.0;
+
+        /**
+         * Minimum coefficient of determination (R²) of the linear fit.
+         * Close to 1 means the counter grows steadily rather than fluctuating.
+         * Default: 0.9
+         */
+        private double minRSquared = 0.9;
+
+        /**
+         * Maximum coefficient of variation of the publish rate across the window
+         * for publish volume to be considered steady.
+         * Default: 0.5
+         */
+        private double maxPublishRateVariation = 0.5;
+    }
+
+    public enum PublisherType {
+        CORE, MQTT, JMS
+    }
+
+    public enum PayloadDistribution {
+        FIXED, UNIFORM, EXPONENTIAL
+    }
+
+    @Data
+    public static class WorkloadProfile {
+
+        /**
+         * Number of recurring {@code publish/{org}/{user}} addresses that messages are drawn from.
+         * Default: 1000
+         */
+        private int workingSetSize = 1000;
+
+        /**
+         * Zipf exponent for picking addresses from the working set; higher values concentrate traffic
+         * on fewer hot addresses, 0 picks uniformly.
+         * Default: 1.0
+         */
+        private double zipfExponent = 1.0;
+
+        /**
+         * Fraction of messages sent to a fresh one-off address instead of the working set.
+         * Default: 0.1
+         */
+        private double oneOffRatio = 0.1;
+
+        /**
+         * Distribution of message body lengths.
+         * Default: FIXED
+         */
+        private PayloadDistribution payloadDistribution = PayloadDistribution.FIXED;
+
+        /**
+         * Smallest body length in characters; the only length for {@code FIXED}.
+         * Default: 0
+         */
+        private int payloadSizeMin = 0;
+
+        /**
+         * Largest body length in characters for {@code UNIFORM} and {@code EXPONENTIAL}.
+         * Default: 4096
+         */
+        private int payloadSizeMax = 4096;
+
+        /**
+         * Mean body length in characters for {@code EXPONENTIAL}.
+         * Default: 512
+         */
+        private int payloadSizeMean = 512;
+
+        /**
+         * Messages per second per publisher; 0 publishes as fast as possible.
+         * Default: 0
+         */
+        private double publishRate = 0;
+    }
+
+    @Data
+    public static class Churn {
+
+        /**
+         * Enable tracking of address creation and removal notifications.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Only addresses starting with this prefix are tracked.
+         * Default: publish/
+         */
+        private String addressPrefix = "publish/";
+
+        /**
+         * Prefix of the addresses the stress publishes to, also tracked. Kept out of {@code publish/} so stress
+         * addresses neither match the {@code publish/#} subscription nor mix with the scheduled publisher's
+         * addresses in the stress backlog.
+         * Default: churn/
+         */
+        private String stressAddressPrefix = "churn/";
+
+        /**
+         * Most live addresses whose creation time is kept for the lifetime histogram. Addresses created beyond
+         * this, or alive longer than 24h, are still counted but their lifetime is not recorded, so addresses
+         * that are never deleted cannot grow the map without bound.
+         * Default: 100000
+         */
+        private int maxTrackedAddresses = 100_000;
+
+        /**
+         * Interval at which churn rates and the address lifetime distribution are logged.
+         * Default: 10s
+         */
+        private Duration reportInterval = Duration.ofSeconds(10);
+
+        /**
+         * Run the churn stress once the application is ready.
+         * Default: false
+         */
+        private boolean stress = false;
+
+        /**
+         * Address creation rate of the first stress step, in addresses per second.
+         * Default: 100
+         */
+        private double initialRate = 100;
+
+        /**
+         * Increase of the creation rate per stress step, in addresses per second.
+         * Default: 100
+         */
+        private double rateStep = 100;
+
+        /**
+         * Highest creation rate tried before the stress stops.
+         * Default: 10000
+         */
+        private double maxRate = 10_000;
+
+        /**
+         * Duration of each stress step.
+         * Default: 10s
+         */
+        private Duration stepDuration = Duration.ofSeconds(10);
+
+        /**
+         * Fraction of a step's created addresses that may still be alive after the step before
+         * auto-delete is considered to have fallen behind.
+         * Default: 0.1
+         */
+        private double backlogTolerance = 0.1;
+    }
+
+    @Data
+    public static class Startup {
+
+        /**
+         * Break broker startup into phases and log them once the node has consumed its first message.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often broker structures are sampled while the journals load.
+         * Default: 1ms
+         */
+        private Duration sampleInterval = Duration.ofMillis(1);
 
+        /**
+         * Longest wait for cluster bridges and the first consumed message before the profile is logged without them.
+         * Default: 5m
+         */
+        private Duration timeout = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Jms {
+
+        /**
+         * Maximum number of pooled connections to the broker.
+         * Default: 1
+         */
+        private int maxConnections = 1;
+
+        /**
+         * Maximum number of pooled sessions per connection.
+         * Default: 500
+         */
+        private int maxSessionsPerConnection = 500;
+
+        /**
+         * Cache one anonymous producer per pooled session and give the destination per send.
+         * When false, every send creates and closes a producer unless {@code explicit-producer-cache-size} is set.
+         * Default: true
+         */
+        private boolean useAnonymousProducers = true;
+
+        /**
+         * Number of producers for explicit destinations cached per pooled session.
+         * Default: 0
+         */
+        private int explicitProducerCacheSize = 0;
+    }
+
+    @Data
+    public static class Paging {
+
+        /**
+         * Fill durable queues with no consumers until they page, then drain them and report paging I/O.
+         * Default: false
+         */
+        private boolean stress = false;
+
+        /**
+         * Number of {@code paging/} addresses, each with one durable queue, filled at once.
+         * Default: 100
+         */
+        private int addressCount = 100;
+
+        /**
+         * Messages sent to each address while its consumer is paused.
+         * Default: 20
+         */
+        private int messagesPerAddress = 20;
+
+        /**
+         * Body size of each message in bytes.
+         * Default: 65536 (64 KB)
+         */
+        private int payloadSize = 64 * 1024;
+
+        /**
+         * Longest wait for the queues to drain once consumers are resumed.
+         * Default: 5m
+         */
+        private Duration drainTimeout = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class CoreConsumer {
+
+        /**
+         * Sessions consuming the shared {@code publish/#} queue in parallel.
+         * Message handlers of one session run one at a time, so this is the consumer's parallelism.
+         * Default: 1
+         */
+        private int sessions = 1;
+
+        /**
+         * Consumers created on each session. They share the session's delivery thread but each has its own window.
+         * Default: 1
+         */
+        private int consumersPerSession = 1;
+
+        /**
+         * Bytes the broker may push to each consumer ahead of acknowledgement; -1 for no limit, 0 to pull one
+         * message at a time.
+         * Default: 1048576 (1 MB)
+         */
+        private int consumerWindowSize = 1024 * 1024;
+
+        /**
+         * Bytes of acknowledged messages each session collects before sending the acknowledgements to the broker
+         * in one packet; 0 sends one acknowledgement per message.
+         * Default: 1048576 (1 MB)
+         */
+        private int ackBatchSize = 1024 * 1024;
+
+        /**
+         * Wait for the broker to confirm every acknowledgement packet before handling the next message.
+         * Default: false
+         */
+        private boolean blockOnAcknowledge = false;
+
+        /**
+         * Let the broker acknowledge messages as it delivers them, so the consumer sends no acknowledgements;
+         * messages in flight are lost if the consumer fails.
+         * Default: false
+         */
+        private boolean preAcknowledge = false;
+
+        /**
+         * Interval between consume rate and backlog reports.
+         * Default: 10s
+         */
+        private Duration reportInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class OpenLoop {
+
+        public enum Ramp {
+            /**
+             * Start at {@code startRate} and add {@code stepRate} every {@code stepDuration} up to {@code rate}.
+             */
+            STEP,
+            /**
+             * Rise linearly from {@code startRate} to {@code rate} over {@code rampDuration}, then hold.
+             */
+            LINEAR,
+            /**
+             * Hold {@code startRate} and jump to {@code rate} for {@code burstDuration} every {@code burstInterval}.
+             */
+            BURST
+        }
+
+        /**
+         * Replace the scheduled and concurrent publishers with a single open-loop publisher that sends each message
+         * at its intended time, however long earlier sends took.
+         * Default: false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Shape of the offered rate over time.
+         * Default: STEP
+         */
+        private Ramp ramp = Ramp.STEP;
+
+        /**
+         * Offered rate in messages/s at the start of the run, and between bursts.
+         * Default: 100
+         */
+        private double startRate = 100;
+
+        /**
+         * Highest offered rate in messages/s; the rate held after a step or linear ramp, and the burst rate.
+         * Default: 1000
+         */
+        private double rate = 1000;
+
+        /**
+         * Increase of the offered rate per step.
+         * Default: 100
+         */
+        private double stepRate = 100;
+
+        /**
+         * Time spent at each step.
+         * Default: 30s
+         */
+        private Duration stepDuration = Duration.ofSeconds(30);
+
+        /**
+         * Time to rise from {@code startRate} to {@code rate}.
+         * Default: 5m
+         */
+        private Duration rampDuration = Duration.ofMinutes(5);
+
+        /**
+         * Length of each burst.
+         * Default: 5s
+         */
+        private Duration burstDuration = Duration.ofSeconds(5);
+
+        /**
+         * Time from the start of one burst to the start of the next.
+         * Default: 60s
+         */
+        private Duration burstInterval = Duration.ofSeconds(60);
+
+        /**
+         * How long to run before stopping; 0 runs until shutdown.
+         * Default: 0
+         */
+        private Duration duration = Duration.ZERO;
+
+        /**
+         * How late a send may go out before it counts as a missed schedule.
+         * Default: 1ms
+         */
+        private Duration missTolerance = Duration.ofMillis(1);
+
+        /**
+         * Interval between offered rate, send rate, backlog and missed-schedule reports.
+         * Default: 10s
+         */
+        private Duration reportInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Stats {
+
+        /**
+         * Serve the {@link ArtemisMonitor} snapshot as JSON on {@code /stats} and as server-sent events on
+         * {@code /stats/stream}.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Interval between streamed snapshots, and the age after which {@code /stats} walks the broker again.
+         * Default: 1s
+         */
+        private Duration interval = Duration.ofSeconds(1);
+    }
+
+}
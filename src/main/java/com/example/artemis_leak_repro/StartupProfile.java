@@ -0,0 +1,56 @@
+package com.example.artemis_leak_repro;
+
+/**
+ * Broker startup broken into phases, with the size of the journals that were reloaded.
+ * Durations are in milliseconds; {@code -1} means the milestone was not reached before the profile was taken.
+ *
+ * @param journalBytes             bytes in the bindings and message journal directories before loading
+ * @param journalFiles             files in the bindings and message journal directories before loading
+ * @param journalRecords           live records in the bindings and message journals after loading
+ * @param addressesReloaded        addresses restored from the bindings journal
+ * @param bindingsReloaded         queue bindings restored from the bindings journal
+ * @param duplicateIDCaches        duplicate-ID caches present once the journals are loaded
+ * @param pagingStores             paging stores present once the journals are loaded
+ * @param storageStartMillis       server start until the journals start loading
+ * @param bindingsLoadMillis       journals start loading until the last address or binding is restored
+ * @param messageJournalLoadMillis last binding restored until the first duplicate-ID cache appears
+ * @param duplicateIDRebuildMillis first until last duplicate-ID cache appears
+ * @param pagingStoreInitMillis    first until last paging store appears while the journals load
+ * @param journalLoadMillis        journals start loading until the server is activated
+ * @param activationMillis         server start until activation completes
+ * @param bridgeFormationMillis    activation complete until every static cluster bridge is connected
+ * @param firstConsumedMillis      server start until the first message is delivered to a non-bridge consumer
+ */
+public record StartupProfile(
+    long journalBytes,
+    long journalFiles,
+    long journalRecords,
+    int addressesReloaded,
+    int bindingsReloaded,
+    int duplicateIDCaches,
+    int pagingStores,
+    long storageStartMillis,
+    long bindingsLoadMillis,
+    long messageJournalLoadMillis,
+    long duplicateIDRebuildMillis,
+    long pagingStoreInitMillis,
+    long journalLoadMillis,
+    long activationMillis,
+    long bridgeFormationMillis,
+    long firstConsumedMillis
+) {
+
+    /**
+     * Journal load time per MB of journal on disk, i.e. what each MB of leaked state adds to a restart.
+     */
+    public double millisPerMegabyte() {
+        return journalBytes == 0 ? 0 : journalLoadMillis / (journalBytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Journal load time per thousand live journal records.
+     */
+    public double millisPerThousandRecords() {
+        return journalRecords == 0 ? 0 : journalLoadMillis / (journalRecords / 1000.0);
+    }
+}
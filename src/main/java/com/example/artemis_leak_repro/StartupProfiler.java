@@ -0,0 +1,307 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.ClusterConnectionConfiguration;
+import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.persistence.impl.journal.AbstractJournalStorageManager;
+import org.apache.activemq.artemis.core.postoffice.Binding;
+import org.apache.activemq.artemis.core.postoffice.BindingType;
+import org.apache.activemq.artemis.core.postoffice.impl.PostOfficeImpl;
+import org.apache.activemq.artemis.core.server.ActivateCallback;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.ServerConsumer;
+import org.apache.activemq.artemis.core.server.cluster.ClusterConnection;
+import org.apache.activemq.artemis.core.server.cluster.ClusterManager;
+import org.apache.activemq.artemis.core.server.impl.AddressInfo;
+import org.apache.activemq.artemis.core.server.plugin.ActiveMQServerAddressPlugin;
+import org.apache.activemq.artemis.core.server.plugin.ActiveMQServerBindingPlugin;
+import org.apache.activemq.artemis.core.server.plugin.ActiveMQServerMessagePlugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Breaks broker startup into phases to show how leaked journal state slows restarts.
+ * <p>
+ * Registered as a broker plugin before the server starts. Activation callbacks mark where the journals start and
+ * finish loading; address and binding reload hooks mark the end of the bindings load; duplicate-ID caches and
+ * paging stores have no reload hooks, so their counts are sampled every {@code repro.startup.sample-interval}
+ * while the journals load and the phase runs from the first to the last change. After activation the profiler waits
+ * for every static cluster bridge to connect and for the first message delivered to a non-bridge consumer, then
+ * logs the phases together with the journal size and record count and unregisters itself.
+ */
+@Slf4j
+public class StartupProfiler implements ActivateCallback,
+    ActiveMQServerAddressPlugin, ActiveMQServerBindingPlugin, ActiveMQServerMessagePlugin {
+
+    private static final long BRIDGE_POLL_MILLIS = 100;
+
+    private final AmqProperties amqProperties;
+    private final ReproProperties reproProperties;
+
+    private final AtomicInteger addressesReloaded = new AtomicInteger();
+    private final AtomicInteger bindingsReloaded = new AtomicInteger();
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    private ActiveMQServer server;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> sampler;
+    private SimpleString internalPrefix;
+    private volatile StartupProfile profile;
+
+    // System.nanoTime() of each milestone, 0 until reached
+    private volatile long started;
+    private volatile long loading;
+    private volatile long lastBindingReloaded;
+    private volatile long activated;
+    private volatile long activationComplete;
+    private volatile long bridgesFormed;
+    private volatile long firstConsumed;
+
+    // only touched by the scheduler thread
+    private int duplicateIDCaches;
+    private int pagingStores;
+    private long firstDuplicateIDCache;
+    private long lastDuplicateIDCache;
+    private long firstPagingStore;
+    private long lastPagingStore;
+    private long journalBytes;
+    private long journalFiles;
+    private long journalRecords;
+    private int expectedBridges;
+
+    public StartupProfiler(AmqProperties amqProperties, ReproProperties reproProperties) {
+        this.amqProperties = amqProperties;
+        this.reproProperties = reproProperties;
+    }
+
+    /**
+     * The startup profile, or {@code null} until every milestone was reached or the timeout expired.
+     */
+    public StartupProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public void registered(ActiveMQServer server) {
+        this.started = System.nanoTime();
+        this.server = server;
+        this.internalPrefix = SimpleString.of(server.getConfiguration().getInternalNamingPrefix());
+        server.registerActivateCallback(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "startup-profiler-" + amqProperties.getBrokerName());
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.schedule(this::report, reproProperties.getStartup().getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void preActivate() {
+        scheduler.execute(this::measureJournalDirectories);
+        loading = System.nanoTime();
+        long period = reproProperties.getStartup().getSampleInterval().toNanos();
+        sampler = scheduler.scheduleAtFixedRate(this::sample, 0, period, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void activated() {
+        activated = System.nanoTime();
+        sampler.cancel(false);
+        scheduler.execute(() -> {
+            // the load may have finished between two samples
+            sample();
+            if (server.getStorageManager() instanceof AbstractJournalStorageManager journals) {
+                journalRecords = (long) journals.getBindingsJournal().getNumberOfRecords()
+                    + journals.getMessageJournal().getNumberOfRecords();
+            }
+        });
+    }
+
+    @Override
+    public void activationComplete() {
+        activationComplete = System.nanoTime();
+        scheduler.execute(() -> {
+            expectedBridges = expectedBridges();
+            scheduler.scheduleWithFixedDelay(this::checkBridges, 0, BRIDGE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    @Override
+    public void afterAddAddress(AddressInfo addressInfo, boolean reload) {
+        if (reload && isLoading()) {
+            addressesReloaded.incrementAndGet();
+            lastBindingReloaded = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterAddBinding(Binding binding) {
+        if (binding.getType() == BindingType.LOCAL_QUEUE && isLoading()) {
+            bindingsReloaded.incrementAndGet();
+            lastBindingReloaded = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterDeliver(ServerConsumer consumer, MessageReference reference) {
+        // cluster bridges consume from internal store-and-forward queues
+        if (firstConsumed == 0 && !consumer.getQueue().getName().startsWith(internalPrefix)) {
+            firstConsumed = System.nanoTime();
+        }
+    }
+
+    private boolean isLoading() {
+        return loading != 0 && activated == 0;
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        PagingManager pagingManager = server.getPagingManager();
+        if (server.getPostOffice() instanceof PostOfficeImpl postOffice) {
+            int caches = postOffice.getDuplicateIDCaches().size();
+            if (caches != duplicateIDCaches) {
+                if (firstDuplicateIDCache == 0) {
+                    firstDuplicateIDCache = now;
+                }
+                lastDuplicateIDCache = now;
+                duplicateIDCaches = caches;
+            }
+        }
+        if (pagingManager != null) {
+            int stores = pagingManager.getStoreNames().length;
+            if (stores != pagingStores) {
+                if (firstPagingStore == 0) {
+                    firstPagingStore = now;
+                }
+                lastPagingStore = now;
+                pagingStores = stores;
+            }
+        }
+    }
+
+    private void measureJournalDirectories() {
+        Path dataDirectory = Paths.get(amqProperties.getDataDirectory());
+        for (String directory : new String[]{"bindings", "journal"}) {
+            Path path = dataDirectory.resolve(directory);
+            try {
+                DiskUsageTracker.DiskUsage usage = DiskUsageTracker.walk(path);
+                journalBytes += usage.bytes();
+                journalFiles += usage.files();
+            } catch (IOException e) {
+                log.warn("Could not measure {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * Remote nodes this node has static connectors to; its own connector is listed too but never bridged.
+     */
+    private int expectedBridges() {
+        int expected = 0;
+        for (ClusterConnectionConfiguration cluster : server.getConfiguration().getClusterConfigurations()) {
+            expected += (int) cluster.getStaticConnectors().stream()
+                .filter(connector -> !connector.equals(cluster.getConnectorName()))
+                .count();
+        }
+        return expected;
+    }
+
+    private void checkBridges() {
+        if (bridgesFormed == 0) {
+            int connected = 0;
+            ClusterManager clusterManager = server.getClusterManager();
+            if (clusterManager != null) {
+                for (ClusterConnection connection : clusterManager.getClusterConnections()) {
+                    connected += connection.getNodes().size();
+                }
+            }
+            if (connected >= expectedBridges) {
+                bridgesFormed = System.nanoTime();
+            }
+        }
+        if (bridgesFormed != 0 && firstConsumed != 0) {
+            report();
+        }
+    }
+
+    private void report() {
+        if (!reported.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long bindingsLoaded = Math.max(loading, lastBindingReloaded);
+            // duplicate-ID caches are rebuilt after the message journal is read
+            long messagesLoaded = firstDuplicateIDCache > bindingsLoaded ? firstDuplicateIDCache : activated;
+            profile = new StartupProfile(
+                journalBytes,
+                journalFiles,
+                journalRecords,
+                addressesReloaded.get(),
+                bindingsReloaded.get(),
+                duplicateIDCaches,
+                pagingStores,
+                millis(started, loading),
+                millis(loading, bindingsLoaded),
+                millis(bindingsLoaded, messagesLoaded),
+                millis(firstDuplicateIDCache, lastDuplicateIDCache),
+                millis(firstPagingStore, lastPagingStore),
+                millis(loading, activated),
+                millis(started, activationComplete),
+                millis(activationComplete, bridgesFormed),
+                millis(started, firstConsumed));
+            log.info("""
+                    [{}] Startup profile ({} MB in {} journal files, {} records):
+                      Storage start:        {} ms
+                      Bindings load:        {} ms ({} addresses, {} bindings)
+                      Message journal load: {} ms
+                      Duplicate-ID rebuild: {} ms ({} caches)
+                      Paging store init:    {} ms ({} stores)
+                      Journal load total:   {} ms ({} ms/MB, {} ms/1000 records)
+                      Activation complete:  {} ms after start
+                      Cluster bridges:      {} ms after activation ({} expected)
+                      First consumed:       {} ms after start""",
+                amqProperties.getBrokerName(),
+                journalBytes / (1024 * 1024), journalFiles, journalRecords,
+                profile.storageStartMillis(),
+                profile.bindingsLoadMillis(), profile.addressesReloaded(), profile.bindingsReloaded(),
+                profile.messageJournalLoadMillis(),
+                profile.duplicateIDRebuildMillis(), profile.duplicateIDCaches(),
+                profile.pagingStoreInitMillis(), profile.pagingStores(),
+                profile.journalLoadMillis(),
+                String.format("%.1f", profile.millisPerMegabyte()), String.format("%.1f", profile.millisPerThousandRecords()),
+                profile.activationMillis(),
+                profile.bridgeFormationMillis(), expectedBridges,
+                profile.firstConsumedMillis());
+        } catch (Exception e) {
+            log.error("Error reporting startup profile", e);
+        } finally {
+            server.unRegisterBrokerPlugin(this);
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static long millis(long from, long to) {
+        if (from == 0 || to == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(to - from);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.artemis_leak_repro;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves this node's {@link ArtemisMonitor} snapshot and routing counters over HTTP on {@code server.port}.
+ * <p>
+ * {@code GET /stats} returns the latest snapshot as JSON and {@code GET /stats/stream} pushes it as server-sent
+ * events every {@code repro.stats.interval}. The broker is walked at most once per interval however many clients are
+ * connected, and not at all while nobody is asking.
+ * <p>
+ * Unlike the other components this one is picked up by component scanning, which is what maps its handlers,
+ * so its condition sits on the class rather than on a {@code @Bean} method.
+ */
+@Slf4j
+@RestController
+@ConditionalOnBooleanProperty(value = "repro.stats.enabled", matchIfMissing = true)
+@RequestMapping("/stats")
+public class StatsEndpoint {
+
+    public record Stats(String broker, BrokerSnapshot snapshot, ArtemisMonitor.RoutingStats routing) {
+    }
+
+    private final ArtemisMonitor monitor;
+    private final AmqProperties amqProperties;
+    private final ReproProperties.Stats settings;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile Stats latest;
+    private ScheduledExecutorService scheduler;
+
+    public StatsEndpoint(ArtemisMonitor monitor, AmqProperties amqProperties, ReproProperties reproProperties) {
+        this.monitor = monitor;
+        this.amqProperties = amqProperties;
+        this.settings = reproProperties.getStats();
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-stream");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = settings.getInterval().toMillis();
+        scheduler.scheduleAtFixedRate(this::broadcast, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+    }
+
+    @GetMapping
+    public Stats current() {
+        return refresh();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        // no timeout, the stream ends when the client disconnects or the node stops
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        send(emitter, refresh());
+        return emitter;
+    }
+
+    private void broadcast() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        try {
+            Stats stats = refresh();
+            for (SseEmitter emitter : emitters) {
+                send(emitter, stats);
+            }
+        } catch (Exception e) {
+            log.error("[{}] Stats broadcast failed", amqProperties.getBrokerName(), e);
+        }
+    }
+
+    private void send(SseEmitter emitter, Stats stats) {
+        try {
+            emitter.send(SseEmitter.event().name("stats").data(stats, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // client went away; the emitter's completion callback may not have run yet
+            emitters.remove(emitter);
+        }
+    }
+
+    /**
+     * Returns the cached stats, walking the broker again only once they are older than the stream interval.
+     */
+    private synchronized Stats refresh() {
+        Stats stats = latest;
+        if (stats == null
+            || System.currentTimeMillis() - stats.snapshot().timestamp() >= settings.getInterval().toMillis()) {
+            stats = new Stats(amqProperties.getBrokerName(), monitor.snapshot(), monitor.routingStats());
+            latest = stats;
+        }
+        return stats;
+    }
+}
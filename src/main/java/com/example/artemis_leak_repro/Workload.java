@@ -0,0 +1,220 @@
+package com.example.artemis_leak_repro;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.api.core.SimpleString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generates publish addresses, payload sizes and pacing from the workload profile selected by {@code repro.workload}.
+ * <p>
+ * Without a profile every message goes to a fresh {@code publish/{uuid}/{uuid}} address, except the first of each batch
+ * which always uses the same address, and every payload is padded to {@code repro.payload-size}.
+ * With a profile, a share of messages go to a fixed working set of recurring addresses picked by a Zipf distribution,
+ * the rest go to one-off addresses, and payload sizes follow the configured distribution.
+ * Recurring addresses are also kept as {@link SimpleString} for Core publishers, and the random UUIDs of one-off
+ * addresses come from {@link ThreadLocalRandom} rather than {@code UUID.randomUUID()}'s {@code SecureRandom}.
+ * Instances are shared between publishers and safe for concurrent use.
+ */
+@Slf4j
+public class Workload {
+
+    static final String ZERO_UUID = "00000000-0000-0000-0000-000000000001";
+
+    private static final String ZERO_ADDRESS = "publish/" + ZERO_UUID + "/" + ZERO_UUID;
+    private static final SimpleString ZERO_ADDRESS_NAME = SimpleString.of(ZERO_ADDRESS);
+    private static final byte[] ADDRESS_PREFIX = "publish/".getBytes(StandardCharsets.US_ASCII);
+    private static final int UUID_LENGTH = 36;
+    private static final int ADDRESS_LENGTH = ADDRESS_PREFIX.length + UUID_LENGTH + 1 + UUID_LENGTH;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int ZERO = -1;
+    private static final int ONE_OFF = -2;
+
+    private final ReproProperties.WorkloadProfile profile;
+    private final int defaultPayloadSize;
+    private final String[] workingSet;
+    private final SimpleString[] workingSetNames;
+    private final double[] cumulativeWeights;
+
+    public Workload(ReproProperties reproProperties) {
+        this.defaultPayloadSize = reproProperties.getPayloadSize();
+        String name = reproProperties.getWorkload();
+        if (name == null || name.isBlank()) {
+            this.profile = null;
+            this.workingSet = new String[0];
+            this.workingSetNames = new SimpleString[0];
+            this.cumulativeWeights = new double[0];
+            return;
+        }
+        this.profile = reproProperties.getWorkloads().get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown workload profile: " + name);
+        }
+        int size = profile.getWorkingSetSize();
+        this.workingSet = new String[size];
+        this.workingSetNames = new SimpleString[size];
+        this.cumulativeWeights = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            workingSet[rank] = randomAddress();
+            workingSetNames[rank] = SimpleString.of(workingSet[rank]);
+            total += 1.0 / Math.pow(rank + 1, profile.getZipfExponent());
+            cumulativeWeights[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulativeWeights[rank] /= total;
+        }
+        log.info("Workload '{}': {} recurring addresses (zipf s={}), {}% one-off, {} payloads {}-{} bytes, {} msg/s",
+            name, size, profile.getZipfExponent(), Math.round(profile.getOneOffRatio() * 100),
+            profile.getPayloadDistribution(), profile.getPayloadSizeMin(), profile.getPayloadSizeMax(),
+            profile.getPublishRate() > 0 ? profile.getPublishRate() : "unlimited");
+    }
+
+    /**
+     * Address for the {@code index}-th message of a batch.
+     */
+    public String nextAddress(int index) {
+        int rank = nextRank(index);
+        return switch (rank) {
+            case ZERO -> ZERO_ADDRESS;
+            case ONE_OFF -> randomAddress();
+            default -> workingSet[rank];
+        };
+    }
+
+    /**
+     * Address for the {@code index}-th message of a batch as a {@link SimpleString}. Recurring addresses are cached;
+     * one-off addresses are encoded directly, without an intermediate {@link String}.
+     */
+    public SimpleString nextAddressName(int index) {
+        int rank = nextRank(index);
+        return switch (rank) {
+            case ZERO -> ZERO_ADDRESS_NAME;
+            case ONE_OFF -> randomAddressName();
+            default -> workingSetNames[rank];
+        };
+    }
+
+    /**
+     * Rank in the working set of the {@code index}-th message's address, or {@link #ZERO} or {@link #ONE_OFF}.
+     */
+    private int nextRank(int index) {
+        if (profile == null) {
+            return index == 0 ? ZERO : ONE_OFF;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (workingSet.length == 0 || random.nextDouble() < profile.getOneOffRatio()) {
+            return ONE_OFF;
+        }
+        int rank = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return Math.min(rank < 0 ? -rank - 1 : rank, workingSet.length - 1);
+    }
+
+    /**
+     * Minimum body length for the next message.
+     */
+    public int nextPayloadSize() {
+        if (profile == null) {
+            return defaultPayloadSize;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int min = profile.getPayloadSizeMin();
+        int max = Math.max(min, profile.getPayloadSizeMax());
+        return switch (profile.getPayloadDistribution()) {
+            case FIXED -> min;
+            case UNIFORM -> random.nextInt(min, max + 1);
+            case EXPONENTIAL -> {
+                double mean = Math.max(1, profile.getPayloadSizeMean() - min);
+                yield (int) Math.min(max, min - mean * Math.log(1 - random.nextDouble()));
+            }
+        };
+    }
+
+    /**
+     * Target time between two messages of one publisher, or 0 to publish as fast as possible.
+     */
+    public long publishIntervalNanos() {
+        if (profile == null || profile.getPublishRate() <= 0) {
+            return 0;
+        }
+        return (long) (1_000_000_000.0 / profile.getPublishRate());
+    }
+
+    /**
+     * Blocks until the intended send time of the {@code index}-th message of a batch started at {@code batchStartNanos}.
+     */
+    public void awaitSendTime(long batchStartNanos, int index) {
+        long interval = publishIntervalNanos();
+        if (interval > 0) {
+            long wait = batchStartNanos + index * interval - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    private static String randomAddress() {
+        byte[] address = new byte[ADDRESS_LENGTH];
+        writeRandomAddress(address, 1);
+        return new String(address, StandardCharsets.ISO_8859_1);
+    }
+
+    private static SimpleString randomAddressName() {
+        // SimpleString's own encoding, two little-endian bytes per char; the array is wrapped without a copy
+        byte[] data = new byte[ADDRESS_LENGTH * 2];
+        writeRandomAddress(data, 2);
+        return SimpleString.of(data);
+    }
+
+    /**
+     * Writes {@code publish/{uuid}/{uuid}} as ASCII with {@code stride} bytes per char, leaving the high bytes zero.
+     */
+    private static void writeRandomAddress(byte[] out, int stride) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pos = 0;
+        for (byte b : ADDRESS_PREFIX) {
+            out[pos] = b;
+            pos += stride;
+        }
+        pos = writeRandomUuid(out, pos, stride, random);
+        out[pos] = '/';
+        pos += stride;
+        writeRandomUuid(out, pos, stride, random);
+    }
+
+    /**
+     * Writes a version 4 UUID in its canonical 8-4-4-4-12 form and returns the position after it.
+     */
+    private static int writeRandomUuid(byte[] out, int pos, int stride, ThreadLocalRandom random) {
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        pos = writeHex(out, pos, stride, msb >>> 32, 8);
+        pos = writeDash(out, pos, stride);
+        pos = writeHex(out, pos, stride, msb >>> 16, 4);
+        pos = writeDash(out, pos, stride);
+        pos = writeHex(out, pos, stride, msb, 4);
+        pos = writeDash(out, pos, stride);
+        pos = writeHex(out, pos, stride, lsb >>> 48, 4);
+        pos = writeDash(out, pos, stride);
+        return writeHex(out, pos, stride, lsb, 12);
+    }
+
+    /**
+     * Writes the low {@code digits} hex digits of {@code value}.
+     */
+    private static int writeHex(byte[] out, int pos, int stride, long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out[pos] = HEX[(int) (value >>> shift) & 0xF];
+            pos += stride;
+        }
+        return pos;
+    }
+
+    private static int writeDash(byte[] out, int pos, int stride) {
+        out[pos] = '-';
+        return pos + stride;
+    }
+}
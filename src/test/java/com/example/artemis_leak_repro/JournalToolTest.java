@@ -0,0 +1,39 @@
+package com.example.artemis_leak_repro;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalToolTest {
+
+    @Test
+    void wildcardBindingDoesNotKeepDeletedAddressCachesLive() {
+        JournalTool tool = new JournalTool(false);
+        tool.bind(SimpleString.of("publish/#"));
+        tool.bind(SimpleString.of("$share/ebs-group/publish/#"));
+
+        assertTrue(tool.isStale(SimpleString.of("publish/a/b")));
+        assertTrue(tool.isStale(SimpleString.of("BRIDGE.publish/a/b")));
+    }
+
+    @Test
+    void concreteBindingKeepsCachesLive() {
+        JournalTool tool = new JournalTool(false);
+        tool.bind(SimpleString.of("publish/#"));
+        tool.bind(SimpleString.of("publish/a/b"));
+
+        assertFalse(tool.isStale(SimpleString.of("publish/a/b")));
+        assertFalse(tool.isStale(SimpleString.of("BRIDGE.publish/a/b")));
+    }
+
+    @Test
+    void wildcardMatchesAreKeptWhenOptedIn() {
+        JournalTool tool = new JournalTool(true);
+        tool.bind(SimpleString.of("publish/#"));
+
+        assertFalse(tool.isStale(SimpleString.of("BRIDGE.publish/a/b")));
+        assertTrue(tool.isStale(SimpleString.of("BRIDGE.other/a")));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.artemis_leak_repro;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Two-node soak run that checks the broker structures affected by ARTEMIS-5773 stay bounded across a restart.
+ * <p>
+ * Boots {@code node1} and {@code node2} in this JVM against dedicated data directories, publishes
+ * {@code soak.batches} batches on each node, restarts both nodes against the same data directories and publishes
+ * again. After startup and after each publishing phase every node is checked against the configured bounds for
+ * {@code publish/} addresses, BRIDGE duplicate-ID caches, {@code publish/} paging stores and data directory size.
+ * The measured values of every node and phase are written as JSON to {@code soak.report}, whether or not the run
+ * passes, and every check is then asserted together, so a failure lists all exceeded bounds rather than the first.
+ * <p>
+ * Tagged {@code soak} and excluded from {@code test}; run with {@code ./gradlew soak}, bounds are passed as
+ * {@code -Psoak.<name>=<value>}.
+ */
+@Tag("soak")
+class SoakTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SoakTest.class);
+    private static final String[] NODES = {"node1", "node2"};
+
+    private final int batches = Integer.getInteger("soak.batches", 5);
+    private final long settleMillis = Long.getLong("soak.settle-millis", 5_000);
+    private final int maxPublishAddresses = Integer.getInteger("soak.max-publish-addresses", 500);
+    private final int maxBridgeCaches = Integer.getInteger("soak.max-bridge-caches", 500);
+    private final int maxPublishPagingStores = Integer.getInteger("soak.max-publish-paging-stores", 500);
+    private final long maxDataBytes = Long.getLong("soak.max-data-bytes", 64L * 1024 * 1024);
+    private final Path dataRoot = Path.of(System.getProperty("soak.data-root", "build/soak"));
+    private final Path report = Path.of(System.getProperty("soak.report", "build/soak/report.json"));
+
+    private record Check(String run, String phase, String node, BrokerSnapshot snapshot, long dataBytes, List<String> violations) {
+    }
+
+    private final List<Check> checks = new ArrayList<>();
+
+    @Test
+    void brokerStructuresStayBoundedAcrossRestart() throws Exception {
+        for (String node : NODES) {
+            ArtemisLeakReproApplication.cleanupArtemisDataDirectory(dataDirectory(node).toString());
+        }
+        for (String run : List.of("initial", "restart")) {
+            List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+            try {
+                for (String node : NODES) {
+                    contexts.add(start(node));
+                }
+                check(run, "startup", contexts);
+                for (int i = 0; i < batches; i++) {
+                    for (ConfigurableApplicationContext context : contexts) {
+                        context.getBean(Publisher.class).publishBatch();
+                    }
+                }
+                // let auto-delete and the cluster bridges catch up before measuring
+                Thread.sleep(settleMillis);
+                check(run, "published", contexts);
+            } finally {
+                for (ConfigurableApplicationContext context : contexts.reversed()) {
+                    context.close();
+                }
+            }
+        }
+        writeReport();
+        log.info("[Soak] {} checks written to {}", checks.size(), report.toAbsolutePath());
+        assertAll(checks.stream().flatMap(c -> c.violations().stream()
+            .map(v -> (Executable) () -> fail(c.run() + "/" + c.phase() + " " + c.node() + ": " + v))));
+    }
+
+    private ConfigurableApplicationContext start(String node) {
+        return SpringApplication.run(ArtemisLeakReproApplication.class,
+            "--spring.profiles.active=" + node,
+            "--amq.data-directory=" + dataDirectory(node),
+            "--server.port=0",
+            "--repro.scheduled-publishing=false");
+    }
+
+    private Path dataDirectory(String node) {
+        return dataRoot.resolve("artemis-data-" + node);
+    }
+
+    private void check(String run, String phase, List<ConfigurableApplicationContext> contexts) throws Exception {
+        for (int i = 0; i < contexts.size(); i++) {
+            ConfigurableApplicationContext context = contexts.get(i);
+            BrokerSnapshot snapshot = context.getBean(ArtemisMonitor.class).snapshot();
+            // walked directly, the tracker's watch-event totals lag right after a publishing burst
+            long dataBytes = DiskUsageTracker.walk(dataDirectory(NODES[i])).bytes();
+            log.info("[Soak] {}/{} {}: {} publish/ addresses, {} BRIDGE caches, {} publish/ paging stores, {} data bytes",
+                run, phase, NODES[i], snapshot.addresses("publish/"), snapshot.duplicateIDCaches("BRIDGE"),
+                snapshot.pagingStores("publish/"), dataBytes);
+            List<String> violations = new ArrayList<>();
+            bound(violations, "publish-addresses", snapshot.addresses("publish/"), maxPublishAddresses);
+            bound(violations, "bridge-caches", snapshot.duplicateIDCaches("BRIDGE"), maxBridgeCaches);
+            bound(violations, "publish-paging-stores", snapshot.pagingStores("publish/"), maxPublishPagingStores);
+            bound(violations, "data-bytes", dataBytes, maxDataBytes);
+            checks.add(new Check(run, phase, NODES[i], snapshot, dataBytes, violations));
+        }
+    }
+
+    private static void bound(List<String> violations, String name, long value, long max) {
+        if (value > max) {
+            violations.add(String.format("%s %d > %d", name, value, max));
+        }
+    }
+
+    private void writeReport() throws Exception {
+        StringBuilder b = new StringBuilder();
+        b.append("{\n");
+        b.append(String.format(Locale.ROOT, "  \"batches\": %d,%n", batches));
+        b.append(String.format(Locale.ROOT,
+            "  \"bounds\": {\"publishAddresses\": %d, \"bridgeCaches\": %d, \"publishPagingStores\": %d, \"dataBytes\": %d},%n",
+            maxPublishAddresses, maxBridgeCaches, maxPublishPagingStores, maxDataBytes));
+        b.append(String.format(Locale.ROOT, "  \"passed\": %b,%n", checks.stream().allMatch(c -> c.violations().isEmpty())));
+        b.append("  \"checks\": [\n");
+        for (int i = 0; i < checks.size(); i++) {
+            Check c = checks.get(i);
+            BrokerSnapshot s = c.snapshot();
+            b.append(String.format(Locale.ROOT,
+                "    {\"run\": \"%s\", \"phase\": \"%s\", \"node\": \"%s\", \"timestamp\": %d, "
+                    + "\"addresses\": %d, \"publishAddresses\": %d, \"queues\": %d, "
+                    + "\"duplicateIDCaches\": %d, \"bridgeCaches\": %d, \"pagingStores\": %d, \"publishPagingStores\": %d, "
+                    + "\"dataBytes\": %d, \"violations\": [%s]}%s%n",
+                c.run(), c.phase(), c.node(), s.timestamp(),
+                s.addressCount(), s.addresses("publish/"), s.queueCount(),
+                s.duplicateIDCacheCount(), s.duplicateIDCaches("BRIDGE"), s.pagingStoreCount(), s.pagingStores("publish/"),
+                c.dataBytes(), String.join(", ", c.violations().stream().map(v -> "\"" + v + "\"").toList()),
+                i < checks.size() - 1 ? "," : ""));
+        }
+        b.append("  ]\n}\n");
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.writeString(report, b);
+    }
+}